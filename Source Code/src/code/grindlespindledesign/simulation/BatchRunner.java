@@ -0,0 +1,596 @@
+package code.grindlespindledesign.simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless batch front end: reads spindle configurations from a CSV or JSON file, runs them on a pool of
+// worker threads and writes one structured record per result. Nothing here touches AWT or Swing, so it
+// starts on machines without a display.
+//
+// Usage: BatchRunner [--threads n] [--format csv|json] [--output file] <configurations.csv|.json|->
+//
+// A record names the SpindleParameters fields (spindleType, powerRating, maxSpeed, wheelDiameter, bearingType,
+// bearingPreload, coolingType, lubricationType, toolInterface, alignmentTolerance) and optionally name, seed
+// and mode: "scenarios" (simulate, the default), "timebased" (simulateTimeBased, with duration in seconds)
+// or "predict" (predictMaintenance on vibration, temperature, load, bearingLife, spindleLife and wheelWear).
+// CSV input has a header row; JSON input is an array of flat objects. Results keep the input order and go
+// to stdout as JSON lines unless --output or --format say otherwise; the timing summary goes to stderr.
+// Seeded jobs reproduce their numbers on any thread count, but maintenanceNeeded comes from the shared
+// history, which learns from every finished run, so it can depend on the order jobs complete in.
+public class BatchRunner {
+    private static final String[] COLUMNS = {"job", "name", "mode", "seed", "scenario", "status", "message",
+        "latencyMillis", "averageLoad", "vibration", "temperature", "bearingLifeHours", "spindleLife",
+        "wheelWear", "maintenanceNeeded"};
+    private static final double DEFAULT_DURATION = 60.0;
+
+    // One output record; a scenarios job gives one per scenario, invalid jobs a single record with the message
+    private record Row(String scenario, String status, String message, double averageLoad, double vibration,
+                       double temperature, double bearingLifeHours, double spindleLife, double wheelWear,
+                       int maintenanceNeeded) {
+
+        static Row failed(String status, String message) {
+            return new Row("", status, message.trim(), Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+                           Double.NaN, Double.NaN, -1);
+        }
+    }
+
+    // Rows of one job plus its run time on the worker (queueing excluded); predict jobs have no seed
+    private record JobResult(int job, String name, String mode, Long seed, List<Row> rows, long nanos) {
+        boolean failed() {
+            return rows.size() == 1 && !rows.get(0).status().equals("valid");
+        }
+    }
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = null;
+        String output = null;
+        String input = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--format" -> format = args[++i].toLowerCase(Locale.ROOT);
+                    case "--output" -> output = args[++i];
+                    default -> input = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            input = null;
+        }
+        if (input == null || threads < 1 || (format != null && !format.equals("csv") && !format.equals("json"))) {
+            System.err.println("Usage: BatchRunner [--threads n] [--format csv|json] [--output file] "
+                + "<configurations.csv|configurations.json|->");
+            System.exit(2);
+        }
+        if (format == null) {
+            format = output != null && output.toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "json";
+        }
+
+        List<Map<String, String>> records;
+        try {
+            String text = input.equals("-")
+                ? new String(System.in.readAllBytes(), StandardCharsets.UTF_8)
+                : Files.readString(Path.of(input), StandardCharsets.UTF_8);
+            records = looksLikeJson(input, text) ? parseJson(text) : parseCsv(text);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Failed to read configurations from " + input + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        int failed;
+        try (Writer writer = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8)) {
+            failed = run(records, threads, format.equals("csv"), writer);
+        } catch (IOException e) {
+            System.err.println("Failed to write results: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Runs every record and writes the results in input order; returns the number of failed jobs
+    static int run(List<Map<String, String>> records, int threads, boolean csv, Writer writer) throws IOException {
+        // Jobs are the unit of parallelism, so each one runs its scenario stages on its own worker thread
+        SpindleSimulation simulation = new SpindleSimulation(Runnable::run);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "spindle-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        List<Future<JobResult>> futures = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            int job = i;
+            Map<String, String> record = records.get(i);
+            futures.add(workers.submit(() -> runJob(simulation, job, record)));
+        }
+
+        if (csv) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+        long[] latencies = new long[futures.size()];
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            JobResult result = await(futures.get(i), i, records.get(i));
+            latencies[i] = result.nanos();
+            if (result.failed()) {
+                failed++;
+            }
+            for (Row row : result.rows()) {
+                writer.write(csv ? csvRecord(result, row) : jsonRecord(result, row));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        long wallNanos = System.nanoTime() - start;
+        workers.shutdown();
+
+        System.err.println(summarize(latencies, failed, threads, wallNanos));
+        System.err.println("Prediction cache: " + simulation.getPredictionCacheStatistics());
+        return failed;
+    }
+
+    private static JobResult runJob(SpindleSimulation simulation, int job, Map<String, String> record) {
+        long start = System.nanoTime();
+        String name = record.getOrDefault("name", "");
+        String mode = record.getOrDefault("mode", "scenarios").toLowerCase(Locale.ROOT);
+        Long seed = null;
+        List<Row> rows;
+        try {
+            if (!mode.equals("predict")) {
+                seed = record.containsKey("seed") ? Long.parseLong(record.get("seed").trim())
+                                                  : SpindleSimulation.randomSeed();
+            }
+            rows = switch (mode) {
+                case "scenarios" -> simulateScenarios(simulation, record, seed);
+                case "timebased" -> simulateTimeBased(simulation, record, seed);
+                case "predict" -> predict(simulation, record);
+                default -> List.of(Row.failed("invalid", "Error: Unknown mode " + mode
+                    + " (expected scenarios, timebased or predict)"));
+            };
+        } catch (IllegalArgumentException e) {
+            rows = List.of(Row.failed("invalid", "Error: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            rows = List.of(Row.failed("error", e.toString()));
+        }
+        return new JobResult(job, name, mode, seed, rows, System.nanoTime() - start);
+    }
+
+    private static List<Row> simulateScenarios(SpindleSimulation simulation, Map<String, String> record, long seed) {
+        SimulationResult result = simulation.simulate(parameters(record), seed);
+        if (!result.isValid()) {
+            return List.of(Row.failed("invalid", result.getValidationMessage()));
+        }
+        List<Row> rows = new ArrayList<>(result.getScenarioResults().size());
+        for (ScenarioResult scenario : result.getScenarioResults()) {
+            rows.add(new Row(scenario.getScenarioName(), "valid", "", scenario.getAverageLoad(),
+                             scenario.getTotalVibration(), scenario.getOperatingTemperature(),
+                             scenario.getBearingLifeHours(), scenario.getSpindleLife(), scenario.getWheelWear(),
+                             scenario.getMaintenanceNeeded()));
+        }
+        return rows;
+    }
+
+    private static List<Row> simulateTimeBased(SpindleSimulation simulation, Map<String, String> record, long seed) {
+        double duration = record.containsKey("duration") ? number(record, "duration") : DEFAULT_DURATION;
+        if (!(duration > 0.0)) {
+            return List.of(Row.failed("invalid", "Error: Duration must be positive"));
+        }
+        SimulationResult result = simulation.simulateTimeBased(parameters(record), duration, seed);
+        if (!result.isValid()) {
+            return List.of(Row.failed("invalid", result.getValidationMessage()));
+        }
+        TimeBasedResult timeBased = result.getTimeBasedResult();
+        return List.of(new Row("Time-Based", "valid", "", timeBased.getAverageLoad(),
+                               timeBased.getMaxVibration() + timeBased.getWearVibration(),
+                               timeBased.getMaxTemperature(), timeBased.getBearingLifeHours(),
+                               timeBased.getSpindleLife(), timeBased.getWheelWear(),
+                               timeBased.getMaintenanceNeeded()));
+    }
+
+    private static List<Row> predict(SpindleSimulation simulation, Map<String, String> record) {
+        double vibration = number(record, "vibration");
+        double temperature = number(record, "temperature");
+        double load = number(record, "load");
+        double bearingLife = number(record, "bearingLife");
+        double spindleLife = number(record, "spindleLife");
+        double wheelWear = number(record, "wheelWear");
+        int maintenance = simulation.predictMaintenance(vibration, temperature, load, bearingLife, spindleLife,
+                                                        wheelWear);
+        return List.of(new Row("", "valid", "", load, vibration, temperature, bearingLife, spindleLife, wheelWear,
+                               maintenance));
+    }
+
+    // Missing fields stay unset, so validateParameters reports them the same way the panel would
+    private static SpindleParameters parameters(Map<String, String> record) {
+        SpindleParameters params = new SpindleParameters();
+        params.setSpindleType(record.get("spindleType"));
+        params.setPowerRating(optionalNumber(record, "powerRating"));
+        params.setMaxSpeed(record.containsKey("maxSpeed") ? integer(record, "maxSpeed") : 0);
+        params.setWheelDiameter(optionalNumber(record, "wheelDiameter"));
+        params.setBearingType(record.get("bearingType"));
+        params.setBearingPreload(optionalNumber(record, "bearingPreload"));
+        params.setCoolingType(record.get("coolingType"));
+        params.setLubricationType(record.get("lubricationType"));
+        params.setToolInterface(record.get("toolInterface"));
+        params.setAlignmentTolerance(optionalNumber(record, "alignmentTolerance"));
+        return params;
+    }
+
+    private static double optionalNumber(Map<String, String> record, String field) {
+        return record.containsKey(field) ? number(record, field) : 0.0;
+    }
+
+    private static double number(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + field + ": " + value);
+        }
+    }
+
+    // Rejects fractions and values outside int rather than truncating them
+    private static int integer(Map<String, String> record, String field) {
+        double value = number(record, field);
+        if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number for " + field + ": " + record.get(field));
+        }
+        return (int) value;
+    }
+
+    private static JobResult await(Future<JobResult> future, int job, Map<String, String> record) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new JobResult(job, record.getOrDefault("name", ""), record.getOrDefault("mode", "scenarios"), null,
+                                 List.of(Row.failed("error", e.getCause().toString())), 0L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for job " + job, e);
+        }
+    }
+
+    static String summarize(long[] latencies, int failed, int threads, long wallNanos) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double wallMillis = wallNanos / 1e6;
+        return String.format(Locale.ROOT,
+            "%d jobs (%d failed) on %d threads in %.1f ms (%.1f jobs/s); latency ms p50 %.3f, p90 %.3f, "
+                + "p99 %.3f, max %.3f",
+            sorted.length, failed, threads, wallMillis, sorted.length / (wallMillis / 1000.0),
+            percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.90) / 1e6, percentile(sorted, 0.99) / 1e6,
+            sorted.length == 0 ? Double.NaN : sorted[sorted.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of sorted latencies
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String csvRecord(JobResult result, Row row) {
+        String[] values = {String.valueOf(result.job()), csvField(result.name()), csvField(result.mode()),
+            result.seed() == null ? "" : String.valueOf(result.seed()), csvField(row.scenario()),
+            csvField(row.status()), csvField(row.message()), format(result.nanos() / 1e6), format(row.averageLoad()),
+            format(row.vibration()), format(row.temperature()), format(row.bearingLifeHours()),
+            format(row.spindleLife()), format(row.wheelWear()),
+            row.maintenanceNeeded() < 0 ? "" : String.valueOf(row.maintenanceNeeded())};
+        return String.join(",", values);
+    }
+
+    private static String jsonRecord(JobResult result, Row row) {
+        String[] values = {String.valueOf(result.job()), jsonString(result.name()), jsonString(result.mode()),
+            String.valueOf(result.seed()), jsonString(row.scenario()), jsonString(row.status()),
+            jsonString(row.message()), jsonNumber(result.nanos() / 1e6), jsonNumber(row.averageLoad()),
+            jsonNumber(row.vibration()), jsonNumber(row.temperature()), jsonNumber(row.bearingLifeHours()),
+            jsonNumber(row.spindleLife()), jsonNumber(row.wheelWear()),
+            row.maintenanceNeeded() < 0 ? "null" : String.valueOf(row.maintenanceNeeded())};
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(COLUMNS[i]).append("\":").append(values[i]);
+        }
+        return json.append('}').toString();
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    private static String jsonNumber(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.6g", value) : "null";
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+            && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static boolean looksLikeJson(String input, String text) {
+        if (input.toLowerCase(Locale.ROOT).endsWith(".json")) {
+            return true;
+        }
+        String trimmed = text.stripLeading();
+        return trimmed.startsWith("[") || trimmed.startsWith("{");
+    }
+
+    // Header row plus one record per line; quoted fields may span lines, and blank lines and lines starting
+    // with # are skipped
+    static List<Map<String, String>> parseCsv(String text) {
+        List<Map<String, String>> records = new ArrayList<>();
+        List<String> header = null;
+        for (List<String> fields : splitCsvRecords(text)) {
+            if (header == null) {
+                header = fields;
+                continue;
+            }
+            Map<String, String> record = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.size(), fields.size()); i++) {
+                if (!fields.get(i).isEmpty()) {
+                    record.put(header.get(i), fields.get(i));
+                }
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static List<List<String>> splitCsvRecords(String text) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean lineStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+                continue;
+            }
+            if (lineStart && c == '#') {
+                while (i + 1 < text.length() && text.charAt(i + 1) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            lineStart = false;
+            if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+                if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+                    records.add(fields);
+                }
+                fields = new ArrayList<>();
+                lineStart = true;
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field at end of input");
+        }
+        fields.add(field.toString().trim());
+        if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+            records.add(fields);
+        }
+        return records;
+    }
+
+    // An array of flat objects (or a single object); values are kept as text and nulls are dropped
+    static List<Map<String, String>> parseJson(String text) {
+        JsonReader reader = new JsonReader(text);
+        List<Map<String, String>> records = new ArrayList<>();
+        reader.skipWhitespace();
+        if (reader.peek() == '{') {
+            records.add(reader.readObject());
+        } else {
+            reader.expect('[');
+            reader.skipWhitespace();
+            if (reader.peek() == ']') {
+                reader.position++;
+            } else {
+                do {
+                    reader.skipWhitespace();
+                    records.add(reader.readObject());
+                    reader.skipWhitespace();
+                } while (reader.consume(','));
+                reader.expect(']');
+            }
+        }
+        reader.skipWhitespace();
+        if (reader.position < text.length()) {
+            throw reader.error("Unexpected trailing content");
+        }
+        return records;
+    }
+
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> readObject() {
+            Map<String, String> record = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (consume('}')) {
+                return record;
+            }
+            do {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                String value = readValue();
+                if (value != null) {
+                    record.put(key, value);
+                }
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+            return record;
+        }
+
+        private String readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested values are not supported");
+            }
+            int start = position;
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty()) {
+                throw error("Expected a value");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escape = text.charAt(position++);
+                switch (escape) {
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> value.append(escape);
+                }
+            }
+        }
+
+        char peek() {
+            if (position >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(position);
+        }
+
+        boolean consume(char expected) {
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char expected) {
+            if (!consume(expected)) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + position);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package code.grindlespindledesign.simulation;
+
+public enum BearingType {
+    ANGULAR_CONTACT("Angular Contact", 0.6, 1.2e8, 40.0),
+    HYBRID_CERAMIC("Hybrid Ceramic", 0.4, 1.5e8, 50.0);
+
+    private final String label;
+    private final double baseVibration;    // mm/s at 10000 RPM
+    private final double stiffness;        // N/m
+    private final double dynamicCapacity;  // C rating in kN
+
+    BearingType(String label, double baseVibration, double stiffness, double dynamicCapacity) {
+        this.label = label;
+        this.baseVibration = baseVibration;
+        this.stiffness = stiffness;
+        this.dynamicCapacity = dynamicCapacity;
+    }
+
+    public String getLabel() { return label; }
+
+    public double getBaseVibration() { return baseVibration; }
+
+    public double getStiffness() { return stiffness; }
+
+    public double getDynamicCapacity() { return dynamicCapacity; }
+
+    public static BearingType fromLabel(String label) {
+        for (BearingType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bearing type: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
\ No newline at end of file
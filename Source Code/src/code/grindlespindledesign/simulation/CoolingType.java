@@ -0,0 +1,34 @@
+package code.grindlespindledesign.simulation;
+
+public enum CoolingType {
+    LIQUID("Liquid", 18.0, 1.1),
+    AIR("Air", 22.0, 1.0);
+
+    private final String label;
+    private final double baseTemperatureRise;  // °C
+    private final double lifeFactor;           // bearing life adjustment
+
+    CoolingType(String label, double baseTemperatureRise, double lifeFactor) {
+        this.label = label;
+        this.baseTemperatureRise = baseTemperatureRise;
+        this.lifeFactor = lifeFactor;
+    }
+
+    public String getLabel() { return label; }
+
+    public double getBaseTemperatureRise() { return baseTemperatureRise; }
+
+    public double getLifeFactor() { return lifeFactor; }
+
+    public static CoolingType fromLabel(String label) {
+        for (CoolingType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cooling type: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package code.grindlespindledesign.simulation;
+
+// One evaluated design of a sweep; index is the design's position in the sweep order. Designs skip the
+// maintenance prediction step, which would feed every design into the shared history, so the result's
+// getMaintenanceNeeded() is ScenarioResult.NOT_PREDICTED; getMaintenanceLabel() gives the threshold label.
+public record DesignResult(long index, SpindleConfiguration parameters, ScenarioResult result) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package code.grindlespindledesign.simulation;
+
+// Receives sweep results as they are produced; accept is called concurrently from the sweep workers
+@FunctionalInterface
+public interface DesignSink {
+    void accept(DesignResult result);
+
+    default void complete(SweepSummary summary) {
+    }
+}
\ No newline at end of file
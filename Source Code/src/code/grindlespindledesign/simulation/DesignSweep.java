@@ -0,0 +1,231 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+// Evaluates many spindle design combinations in parallel and streams the results to a DesignSink.
+// Axes that are not set keep the value of the base parameters. Designs are built as enum-typed
+// SpindleConfigurations, so the per-design work does no string handling.
+public class DesignSweep {
+    private static final int SPLIT_THRESHOLD = 32;
+
+    private final SpindleSimulation simulation;
+    private final SpindleConfiguration baseParameters;
+    private final ForkJoinPool pool;
+    private SpindleSimulation.SimulationScenario scenario = new SpindleSimulation.SimulationScenario("Balanced", 0.8, 1.0, 10.0);
+    private long seed = SpindleSimulation.randomSeed();
+
+    private double[] powerRatings;
+    private int[] maxSpeeds;
+    private double[] wheelDiameters;
+    private double[] bearingPreloads;
+    private BearingType[] bearingTypes;
+    private CoolingType[] coolingTypes;
+
+    // Builds one design from its position in the sweep
+    private interface DesignGenerator {
+        SpindleConfiguration design(long index);
+    }
+
+    public DesignSweep(SpindleSimulation simulation, SpindleParameters baseParameters) {
+        this(simulation, baseParameters, ForkJoinPool.commonPool());
+    }
+
+    public DesignSweep(SpindleSimulation simulation, SpindleParameters baseParameters, ForkJoinPool pool) {
+        this.simulation = simulation;
+        this.baseParameters = baseParameters.build();
+        this.pool = pool;
+        this.powerRatings = new double[]{this.baseParameters.powerRating()};
+        this.maxSpeeds = new int[]{this.baseParameters.maxSpeed()};
+        this.wheelDiameters = new double[]{this.baseParameters.wheelDiameter()};
+        this.bearingPreloads = new double[]{this.baseParameters.bearingPreload()};
+        this.bearingTypes = new BearingType[]{this.baseParameters.bearingType()};
+        this.coolingTypes = new CoolingType[]{this.baseParameters.coolingType()};
+    }
+
+    public void setPowerRatings(double... powerRatings) { this.powerRatings = powerRatings.clone(); }
+
+    public void setMaxSpeeds(int... maxSpeeds) { this.maxSpeeds = maxSpeeds.clone(); }
+
+    public void setWheelDiameters(double... wheelDiameters) { this.wheelDiameters = wheelDiameters.clone(); }
+
+    public void setBearingPreloads(double... bearingPreloads) { this.bearingPreloads = bearingPreloads.clone(); }
+
+    public void setBearingTypes(BearingType... bearingTypes) { this.bearingTypes = bearingTypes.clone(); }
+
+    public void setCoolingTypes(CoolingType... coolingTypes) { this.coolingTypes = coolingTypes.clone(); }
+
+    public void setScenario(SpindleSimulation.SimulationScenario scenario) { this.scenario = scenario; }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public long getGridSize() {
+        return (long) powerRatings.length * maxSpeeds.length * wheelDiameters.length
+            * bearingPreloads.length * bearingTypes.length * coolingTypes.length;
+    }
+
+    // Full cartesian product of all axes
+    public SweepSummary runGrid(DesignSink sink) {
+        return run(getGridSize(), index -> {
+            long remainder = index;
+            int coolingIndex = (int) (remainder % coolingTypes.length);
+            remainder /= coolingTypes.length;
+            int bearingIndex = (int) (remainder % bearingTypes.length);
+            remainder /= bearingTypes.length;
+            int preloadIndex = (int) (remainder % bearingPreloads.length);
+            remainder /= bearingPreloads.length;
+            int diameterIndex = (int) (remainder % wheelDiameters.length);
+            remainder /= wheelDiameters.length;
+            int speedIndex = (int) (remainder % maxSpeeds.length);
+            remainder /= maxSpeeds.length;
+            int powerIndex = (int) remainder;
+            return design(powerRatings[powerIndex], maxSpeeds[speedIndex], wheelDiameters[diameterIndex],
+                bearingPreloads[preloadIndex], bearingTypes[bearingIndex], coolingTypes[coolingIndex]);
+        }, sink);
+    }
+
+    // Latin-hypercube sample: numeric axes span [min, max] of their values, categorical axes are stratified
+    public SweepSummary runLatinHypercube(int samples, DesignSink sink) {
+        RandomGenerator random = SpindleSimulation.newGenerator(seed).split();
+        int[] powerStrata = permutation(samples, random);
+        int[] speedStrata = permutation(samples, random);
+        int[] diameterStrata = permutation(samples, random);
+        int[] preloadStrata = permutation(samples, random);
+        int[] bearingStrata = permutation(samples, random);
+        int[] coolingStrata = permutation(samples, random);
+        double[] powerRange = range(powerRatings);
+        double[] speedRange = range(toDoubles(maxSpeeds));
+        double[] diameterRange = range(wheelDiameters);
+        double[] preloadRange = range(bearingPreloads);
+        double[][] offsets = new double[4][samples];
+        for (double[] axis : offsets) {
+            for (int i = 0; i < samples; i++) {
+                axis[i] = random.nextDouble();
+            }
+        }
+
+        return run(samples, index -> {
+            int i = (int) index;
+            double power = stratified(powerRange, powerStrata[i], offsets[0][i], samples);
+            double speed = stratified(speedRange, speedStrata[i], offsets[1][i], samples);
+            double diameter = stratified(diameterRange, diameterStrata[i], offsets[2][i], samples);
+            double preload = stratified(preloadRange, preloadStrata[i], offsets[3][i], samples);
+            BearingType bearingType = bearingTypes[(int) ((long) bearingStrata[i] * bearingTypes.length / samples)];
+            CoolingType coolingType = coolingTypes[(int) ((long) coolingStrata[i] * coolingTypes.length / samples)];
+            return design(power, (int) Math.round(speed), diameter, preload, bearingType, coolingType);
+        }, sink);
+    }
+
+    private SweepSummary run(long designCount, DesignGenerator generator, DesignSink sink) {
+        LongAdder evaluated = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long start = System.nanoTime();
+        pool.invoke(new SweepTask(0, designCount, generator, sink, evaluated, rejected));
+        SweepSummary summary = new SweepSummary(evaluated.sum(), rejected.sum(), System.nanoTime() - start,
+            pool.getParallelism());
+        sink.complete(summary);
+        return summary;
+    }
+
+    // Splits the index range in halves until it is small enough; idle workers steal the other halves
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final DesignGenerator generator;
+        private final DesignSink sink;
+        private final LongAdder evaluated;
+        private final LongAdder rejected;
+
+        SweepTask(long from, long to, DesignGenerator generator, DesignSink sink, LongAdder evaluated, LongAdder rejected) {
+            this.from = from;
+            this.to = to;
+            this.generator = generator;
+            this.sink = sink;
+            this.evaluated = evaluated;
+            this.rejected = rejected;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (long index = from; index < to; index++) {
+                    evaluate(index);
+                }
+                return;
+            }
+            long middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(from, middle, generator, sink, evaluated, rejected),
+                      new SweepTask(middle, to, generator, sink, evaluated, rejected));
+        }
+
+        private void evaluate(long index) {
+            SpindleConfiguration params = generator.design(index);
+            if (!simulation.validateParameters(params).equals("Valid")) {
+                rejected.increment();
+                return;
+            }
+            // Per-design stream keyed on the index, so results do not depend on how the range was split
+            ScenarioResult result = simulation.runSimulationStage(params, scenario,
+                SpindleSimulation.newGenerator(designSeed(seed, index)));
+            sink.accept(new DesignResult(index, params, result));
+            evaluated.increment();
+        }
+    }
+
+    // Mixes the index into the seed. Stepping the seed by the generator's own gamma would make design i + 2's
+    // chunk streams those of design i shifted by one chunk, since every split advances the seed by two gammas.
+    static long designSeed(long seed, long index) {
+        long z = seed ^ index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private SpindleConfiguration design(double powerRating, int maxSpeed, double wheelDiameter, double bearingPreload,
+                                        BearingType bearingType, CoolingType coolingType) {
+        return new SpindleConfiguration(baseParameters.spindleType(), powerRating, maxSpeed, wheelDiameter, bearingType,
+                                        bearingPreload, coolingType, baseParameters.lubricationType(),
+                                        baseParameters.toolInterface(), baseParameters.alignmentTolerance());
+    }
+
+    private static double stratified(double[] range, int stratum, double offset, int samples) {
+        return range[0] + (stratum + offset) / samples * (range[1] - range[0]);
+    }
+
+    private static double[] range(double[] values) {
+        double min = values[0];
+        double max = values[0];
+        for (double value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return new double[]{min, max};
+    }
+
+    private static double[] toDoubles(int[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    // Fisher-Yates shuffle of 0..n-1
+    private static int[] permutation(int n, RandomGenerator random) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
\ No newline at end of file
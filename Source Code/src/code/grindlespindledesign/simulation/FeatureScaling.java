@@ -0,0 +1,80 @@
+package code.grindlespindledesign.simulation;
+
+// Per-feature scales that bring vibration, temperature, load, bearing life, spindle life and wheel wear to
+// comparable ranges. They start at MaintenanceHistory.FEATURE_SCALES and follow the observed range (running
+// min/max) of a feature once the two differ by more than DRIFT, so stored points are rescaled only a
+// logarithmic number of times however far the data wanders.
+final class FeatureScaling {
+    static final double DRIFT = 1.5;
+    // Observed ranges below this many points are too noisy to shrink a scale
+    static final int MIN_POINTS = 32;
+
+    private final double[] min = new double[MaintenanceHistory.FEATURES];
+    private final double[] max = new double[MaintenanceHistory.FEATURES];
+    private final double[] scale = MaintenanceHistory.FEATURE_SCALES.clone();
+    private final double[] inverse = new double[MaintenanceHistory.FEATURES];
+    private long count;
+
+    FeatureScaling() {
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            inverse[f] = 1.0 / scale[f];
+        }
+    }
+
+    double scale(int feature) {
+        return scale[feature];
+    }
+
+    double inverse(int feature) {
+        return inverse[feature];
+    }
+
+    // Adds a raw point to the running ranges. Returns true if any scale changed, with the scales in use
+    // before the change left in previousScales.
+    boolean observe(double[] point, double[] previousScales) {
+        count++;
+        boolean changed = false;
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            double value = point[f];
+            if (count == 1) {
+                min[f] = value;
+                max[f] = value;
+            } else {
+                min[f] = Math.min(min[f], value);
+                max[f] = Math.max(max[f], value);
+            }
+            double range = max[f] - min[f];
+            if (drifted(range, scale[f], count)) {
+                if (!changed) {
+                    System.arraycopy(scale, 0, previousScales, 0, scale.length);
+                    changed = true;
+                }
+                scale[f] = range;
+                inverse[f] = 1.0 / range;
+            }
+        }
+        return changed;
+    }
+
+    // True when a range observed over count points is far enough from the scale to replace it
+    static boolean drifted(double range, double scale, long count) {
+        return range > scale * DRIFT || count >= MIN_POINTS && range > 0 && range * DRIFT < scale;
+    }
+
+    // out[f] = raw[f] / scale[f], computed as a multiplication by the stored inverse
+    void normalize(double[] raw, double[] out) {
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            out[f] = raw[f] * inverse[f];
+        }
+    }
+
+    void normalizeBlock(double[][] columns, int count) {
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            double[] column = columns[f];
+            double factor = inverse[f];
+            for (int j = 0; j < count; j++) {
+                column[j] *= factor;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package code.grindlespindledesign.simulation;
+
+// Maintenance history storage outside the Java heap. The owning history scans it block by block instead of
+// searching a NeighbourIndex; appends run under its write lock and block loads under its read lock.
+interface HistoryStore {
+    int size();
+
+    void append(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                double wheelWear, int label);
+
+    double feature(int feature, int index);
+
+    int label(int index);
+
+    // Copies points start..start+count-1 into the block's feature columns and labels; count never exceeds
+    // SCAN_BLOCK and a block never straddles the store's internal chunks
+    void loadBlock(int start, int count, MaintenanceHistory.ScanBlock block);
+}
\ No newline at end of file
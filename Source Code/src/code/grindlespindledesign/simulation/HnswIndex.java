@@ -0,0 +1,426 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Approximate k-NN through a hierarchical navigable small-world graph (Malkov & Yashunin). Each point
+// links to about m neighbours per layer (2m on the bottom layer); a query descends greedily through the
+// sparse upper layers and then explores the bottom layer with a candidate list of efSearch points.
+// Larger m, efConstruction and efSearch raise recall at the cost of memory, insert time and latency.
+// Points the history evicts stay in the graph as waypoints until it compacts; they are skipped in the results.
+final class HnswIndex implements NeighbourIndex {
+    static final int DEFAULT_M = 16;
+    static final int DEFAULT_EF_CONSTRUCTION = 100;
+    static final int DEFAULT_EF_SEARCH = 20;
+    // Fixed so the graph, and therefore every approximate answer, is reproducible
+    private static final long LEVEL_SEED = 0x4E53_5700L;
+
+    private final int m;
+    private final int bottomCapacity;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom levelRandom = new SplittableRandom(LEVEL_SEED);
+
+    // Bottom layer links: node * (bottomCapacity + 1) holds the link count followed by the links
+    private int[] bottomLinks = new int[0];
+    // upperLinks[node][layer - 1] holds the link count followed by up to m links; null for bottom-only nodes
+    private int[][][] upperLinks = new int[0][][];
+    private int entryPoint = -1;
+    private int topLayer = -1;
+    private int size;
+
+    private final Scratch insertScratch;
+    private final ThreadLocal<Scratch> searchScratch = ThreadLocal.withInitial(Scratch::new);
+
+    HnswIndex() {
+        this(DEFAULT_M, DEFAULT_EF_CONSTRUCTION, DEFAULT_EF_SEARCH);
+    }
+
+    HnswIndex(int m, int efConstruction, int efSearch) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("HNSW needs m >= 2, efConstruction >= 1 and efSearch >= 1");
+        }
+        this.m = m;
+        this.bottomCapacity = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        // Scratch buffers are sized from m and efConstruction, so they are created after those are set
+        this.insertScratch = new Scratch();
+    }
+
+    int getEfSearch() { return efSearch; }
+
+    // Can be changed between queries to trade recall for latency
+    void setEfSearch(int efSearch) { this.efSearch = Math.max(1, efSearch); }
+
+    @Override
+    public void pointAdded(double[][] features, int index) {
+        ensureCapacity(index + 1);
+        size = index + 1;
+        int level = (int) (-Math.log(1.0 - levelRandom.nextDouble()) * levelMultiplier);
+        bottomLinks[index * (bottomCapacity + 1)] = 0;
+        upperLinks[index] = level == 0 ? null : new int[level][m + 1];
+
+        if (entryPoint == -1) {
+            entryPoint = index;
+            topLayer = level;
+            return;
+        }
+
+        Scratch scratch = insertScratch;
+        scratch.prepare(size);
+        double[] query = scratch.point;
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            query[f] = features[f][index];
+        }
+
+        int current = entryPoint;
+        for (int layer = topLayer; layer > level; layer--) {
+            current = greedyClosest(features, query, current, layer);
+        }
+        for (int layer = Math.min(topLayer, level); layer >= 0; layer--) {
+            searchLayer(features, query, current, efConstruction, layer, scratch);
+            int found = scratch.drainResultsAscending();
+            int capacity = layer == 0 ? bottomCapacity : m;
+            int selected = selectNeighbours(features, scratch.sortedNodes, scratch.sortedDistances, found, m, scratch);
+            int[] links = links(index, layer);
+            int offset = linkOffset(index, layer);
+            links[offset] = selected;
+            System.arraycopy(scratch.selected, 0, links, offset + 1, selected);
+            for (int i = 0; i < selected; i++) {
+                connect(features, links[offset + 1 + i], index, layer, capacity, scratch);
+            }
+            current = scratch.sortedNodes[0];
+        }
+
+        if (level > topLayer) {
+            topLayer = level;
+            entryPoint = index;
+        }
+    }
+
+    @Override
+    public void clear() {
+        entryPoint = -1;
+        topLayer = -1;
+        size = 0;
+    }
+
+    @Override
+    public void search(double[][] features, byte[] labels, int size, NeighbourHeap heap) {
+        if (entryPoint == -1) {
+            return;
+        }
+        Scratch scratch = searchScratch.get();
+        scratch.prepare(this.size);
+        double[] query = heap.query;
+        int current = entryPoint;
+        for (int layer = topLayer; layer > 0; layer--) {
+            current = greedyClosest(features, query, current, layer);
+        }
+        searchLayer(features, query, current, Math.max(efSearch, heap.limit()), 0, scratch);
+        for (int i = 0; i < scratch.resultCount; i++) {
+            int node = scratch.resultNodes[i];
+            heap.offer(scratch.resultDistances[i], node, labels[node]);
+        }
+    }
+
+    private int greedyClosest(double[][] features, double[] query, int start, int layer) {
+        int current = start;
+        double currentDistance = MaintenanceHistory.squaredDistance(features, current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] links = links(current, layer);
+            int offset = linkOffset(current, layer);
+            for (int i = 1; i <= links[offset]; i++) {
+                int neighbour = links[offset + i];
+                double distance = MaintenanceHistory.squaredDistance(features, neighbour, query, currentDistance);
+                if (distance < currentDistance) {
+                    currentDistance = distance;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first search of one layer; leaves up to ef nearest points in the scratch result heap
+    private void searchLayer(double[][] features, double[] query, int entry, int ef, int layer, Scratch scratch) {
+        scratch.startSearch();
+        double entryDistance = MaintenanceHistory.squaredDistance(features, entry, query);
+        scratch.markVisited(entry);
+        scratch.pushCandidate(entryDistance, entry);
+        scratch.pushResult(entryDistance, entry, ef);
+
+        while (scratch.candidateCount > 0) {
+            double distance = scratch.candidateDistances[0];
+            int node = scratch.popCandidate();
+            if (scratch.resultCount >= ef && distance > scratch.resultDistances[0]) {
+                break;
+            }
+            int[] links = links(node, layer);
+            int offset = linkOffset(node, layer);
+            for (int i = 1; i <= links[offset]; i++) {
+                int neighbour = links[offset + i];
+                if (!scratch.markVisited(neighbour)) {
+                    continue;
+                }
+                double limit = scratch.resultCount < ef ? Double.POSITIVE_INFINITY : scratch.resultDistances[0];
+                double neighbourDistance = MaintenanceHistory.squaredDistance(features, neighbour, query, limit);
+                if (scratch.resultCount < ef || neighbourDistance < scratch.resultDistances[0]) {
+                    scratch.pushCandidate(neighbourDistance, neighbour);
+                    scratch.pushResult(neighbourDistance, neighbour, ef);
+                }
+            }
+        }
+    }
+
+    // Neighbour selection heuristic: a candidate is kept only if it is closer to the base point than to
+    // every neighbour already kept, which spreads links across directions; remaining slots are then
+    // filled with the nearest discarded candidates. Candidates must be sorted by ascending distance.
+    private int selectNeighbours(double[][] features, int[] candidates, double[] distances, int count, int limit,
+                                 Scratch scratch) {
+        int selected = 0;
+        int discarded = 0;
+        for (int i = 0; i < count && selected < limit; i++) {
+            int candidate = candidates[i];
+            boolean diverse = true;
+            for (int j = 0; j < selected; j++) {
+                if (pointDistance(features, candidate, scratch.selected[j], scratch) < distances[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                scratch.selected[selected++] = candidate;
+            } else {
+                scratch.discarded[discarded++] = candidate;
+            }
+        }
+        for (int i = 0; i < discarded && selected < limit; i++) {
+            scratch.selected[selected++] = scratch.discarded[i];
+        }
+        return selected;
+    }
+
+    // Adds a back link from node to newNode, re-selecting node's links when the list is full
+    private void connect(double[][] features, int node, int newNode, int layer, int capacity, Scratch scratch) {
+        int[] links = links(node, layer);
+        int offset = linkOffset(node, layer);
+        int count = links[offset];
+        if (count < capacity) {
+            links[offset + 1 + count] = newNode;
+            links[offset] = count + 1;
+            return;
+        }
+
+        int[] candidates = scratch.pruneNodes;
+        double[] distances = scratch.pruneDistances;
+        for (int i = 0; i < count; i++) {
+            candidates[i] = links[offset + 1 + i];
+        }
+        candidates[count] = newNode;
+        for (int i = 0; i <= count; i++) {
+            distances[i] = pointDistance(features, candidates[i], node, scratch);
+        }
+        sortByDistance(candidates, distances, count + 1);
+        int selected = selectNeighbours(features, candidates, distances, count + 1, capacity, scratch);
+        links[offset] = selected;
+        System.arraycopy(scratch.selected, 0, links, offset + 1, selected);
+    }
+
+    private static double pointDistance(double[][] features, int a, int b, Scratch scratch) {
+        double[] point = scratch.otherPoint;
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            point[f] = features[f][b];
+        }
+        return MaintenanceHistory.squaredDistance(features, a, point);
+    }
+
+    private static void sortByDistance(int[] nodes, double[] distances, int count) {
+        for (int i = 1; i < count; i++) {
+            int node = nodes[i];
+            double distance = distances[i];
+            int j = i - 1;
+            while (j >= 0 && distances[j] > distance) {
+                nodes[j + 1] = nodes[j];
+                distances[j + 1] = distances[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            distances[j + 1] = distance;
+        }
+    }
+
+    private int[] links(int node, int layer) {
+        return layer == 0 ? bottomLinks : upperLinks[node][layer - 1];
+    }
+
+    private int linkOffset(int node, int layer) {
+        return layer == 0 ? node * (bottomCapacity + 1) : 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > upperLinks.length) {
+            int newCapacity = Math.max(capacity, Math.max(16, upperLinks.length * 2));
+            bottomLinks = Arrays.copyOf(bottomLinks, newCapacity * (bottomCapacity + 1));
+            upperLinks = Arrays.copyOf(upperLinks, newCapacity);
+        }
+    }
+
+    // Per-thread search state: visited marks, a min-heap of candidates to expand and a max-heap of the
+    // best results, plus buffers for neighbour selection
+    private final class Scratch {
+        int[] visited = new int[0];
+        int generation;
+        double[] candidateDistances = new double[64];
+        int[] candidateNodes = new int[64];
+        int candidateCount;
+        double[] resultDistances = new double[64];
+        int[] resultNodes = new int[64];
+        int resultCount;
+        double[] sortedDistances = new double[64];
+        int[] sortedNodes = new int[64];
+        final double[] point = new double[MaintenanceHistory.FEATURES];
+        final double[] otherPoint = new double[MaintenanceHistory.FEATURES];
+        final int[] selected = new int[bottomCapacity + 1];
+        final int[] discarded = new int[Math.max(efConstruction, bottomCapacity) + 1];
+        final int[] pruneNodes = new int[bottomCapacity + 1];
+        final double[] pruneDistances = new double[bottomCapacity + 1];
+
+        void prepare(int size) {
+            if (visited.length < size) {
+                visited = Arrays.copyOf(visited, Math.max(size, visited.length * 2));
+            }
+        }
+
+        void startSearch() {
+            candidateCount = 0;
+            resultCount = 0;
+            if (++generation == 0) {
+                Arrays.fill(visited, 0);
+                generation = 1;
+            }
+        }
+
+        // Returns false if the node was already visited in this search
+        boolean markVisited(int node) {
+            if (visited[node] == generation) {
+                return false;
+            }
+            visited[node] = generation;
+            return true;
+        }
+
+        void pushCandidate(double distance, int node) {
+            if (candidateCount == candidateNodes.length) {
+                candidateNodes = Arrays.copyOf(candidateNodes, candidateCount * 2);
+                candidateDistances = Arrays.copyOf(candidateDistances, candidateCount * 2);
+            }
+            int child = candidateCount++;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (candidateDistances[parent] <= distance) {
+                    break;
+                }
+                candidateNodes[child] = candidateNodes[parent];
+                candidateDistances[child] = candidateDistances[parent];
+                child = parent;
+            }
+            candidateNodes[child] = node;
+            candidateDistances[child] = distance;
+        }
+
+        int popCandidate() {
+            int top = candidateNodes[0];
+            int last = --candidateCount;
+            double distance = candidateDistances[last];
+            int node = candidateNodes[last];
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= last) {
+                    break;
+                }
+                if (child + 1 < last && candidateDistances[child + 1] < candidateDistances[child]) {
+                    child++;
+                }
+                if (candidateDistances[child] >= distance) {
+                    break;
+                }
+                candidateNodes[parent] = candidateNodes[child];
+                candidateDistances[parent] = candidateDistances[child];
+                parent = child;
+            }
+            candidateNodes[parent] = node;
+            candidateDistances[parent] = distance;
+            return top;
+        }
+
+        // Max-heap of at most ef results; the root is the farthest kept result
+        void pushResult(double distance, int node, int ef) {
+            if (resultCount == resultNodes.length) {
+                resultNodes = Arrays.copyOf(resultNodes, resultCount * 2);
+                resultDistances = Arrays.copyOf(resultDistances, resultCount * 2);
+            }
+            int child = resultCount++;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (resultDistances[parent] >= distance) {
+                    break;
+                }
+                resultNodes[child] = resultNodes[parent];
+                resultDistances[child] = resultDistances[parent];
+                child = parent;
+            }
+            resultNodes[child] = node;
+            resultDistances[child] = distance;
+            if (resultCount > ef) {
+                popResult();
+            }
+        }
+
+        private void popResult() {
+            int last = --resultCount;
+            double distance = resultDistances[last];
+            int node = resultNodes[last];
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= last) {
+                    break;
+                }
+                if (child + 1 < last && resultDistances[child + 1] > resultDistances[child]) {
+                    child++;
+                }
+                if (resultDistances[child] <= distance) {
+                    break;
+                }
+                resultNodes[parent] = resultNodes[child];
+                resultDistances[parent] = resultDistances[child];
+                parent = child;
+            }
+            resultNodes[parent] = node;
+            resultDistances[parent] = distance;
+        }
+
+        // Moves the results into sortedNodes/sortedDistances, nearest first, and returns how many there were
+        int drainResultsAscending() {
+            int count = resultCount;
+            if (sortedNodes.length < count) {
+                sortedNodes = new int[count];
+                sortedDistances = new double[count];
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                sortedNodes[i] = resultNodes[0];
+                sortedDistances[i] = resultDistances[0];
+                popResult();
+            }
+            return count;
+        }
+    }
+}
\ No newline at end of file
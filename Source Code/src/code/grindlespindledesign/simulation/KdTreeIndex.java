@@ -0,0 +1,229 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+
+// Exact k-NN through a KD-tree in which every history point is a node. Points are inserted incrementally
+// below the leaf they fall into; the tree is rebuilt with median splits along the widest axis when
+// the history has doubled since the last build or an insertion lands too deep.
+final class KdTreeIndex implements NeighbourIndex {
+    private static final int MIN_REBUILD_SIZE = 64;
+    // Far subtrees are pruned only when clearly out of range, so rounding in the bound never drops a point
+    // that ties the k-th distance
+    private static final double PRUNE_SLACK = 1.0 + 1e-12;
+    // Shared by every tree, since a thread runs one search at a time
+    private static final ThreadLocal<SearchStack> SEARCH_STACKS = ThreadLocal.withInitial(SearchStack::new);
+
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private byte[] axis = new byte[0];
+    private int root = -1;
+    private int size;
+    private int builtSize;
+    private int insertsSinceBuild;
+
+    // Far sides still to visit, with the squared distance to their splitting plane; grown only by deep chains
+    private static final class SearchStack {
+        int[] nodes = new int[64];
+        double[] bounds = new double[64];
+
+        void grow() {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+    }
+
+    @Override
+    public void pointAdded(double[][] features, int index) {
+        ensureCapacity(index + 1);
+        left[index] = -1;
+        right[index] = -1;
+        size = index + 1;
+
+        if (size >= MIN_REBUILD_SIZE && size >= 2 * builtSize) {
+            rebuild(features);
+            return;
+        }
+        int depth = insert(features, index);
+        insertsSinceBuild++;
+        // An unlucky insertion order (e.g. monotonically growing loads) degrades into a list; rebuild once
+        // enough points landed since the last build to pay for it
+        if (depth > 3 * (32 - Integer.numberOfLeadingZeros(size)) && insertsSinceBuild >= size / 8
+            && size >= MIN_REBUILD_SIZE) {
+            rebuild(features);
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = -1;
+        size = 0;
+        builtSize = 0;
+        insertsSinceBuild = 0;
+    }
+
+    private int insert(double[][] features, int index) {
+        if (root == -1) {
+            root = index;
+            axis[index] = 0;
+            return 0;
+        }
+        int node = root;
+        int depth = 1;
+        while (true) {
+            int a = axis[node];
+            boolean goLeft = features[a][index] < features[a][node];
+            int child = goLeft ? left[node] : right[node];
+            if (child == -1) {
+                if (goLeft) {
+                    left[node] = index;
+                } else {
+                    right[node] = index;
+                }
+                axis[index] = (byte) ((a + 1) % MaintenanceHistory.FEATURES);
+                return depth;
+            }
+            node = child;
+            depth++;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > left.length) {
+            int newCapacity = Math.max(capacity, Math.max(16, left.length * 2));
+            left = Arrays.copyOf(left, newCapacity);
+            right = Arrays.copyOf(right, newCapacity);
+            axis = Arrays.copyOf(axis, newCapacity);
+        }
+    }
+
+    private void rebuild(double[][] features) {
+        int[] points = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = i;
+        }
+        root = build(features, points, 0, size);
+        builtSize = size;
+        insertsSinceBuild = 0;
+    }
+
+    // Builds the subtree over points[from, to) and returns its root. Left subtrees hold strictly smaller
+    // coordinates on the node's axis and right subtrees equal or larger ones, matching insert().
+    private int build(double[][] features, int[] points, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int a = widestAxis(features, points, from, to);
+        double[] column = features[a];
+        int middle = (from + to) >>> 1;
+        select(column, points, from, to - 1, middle);
+
+        // Points equal to the median may sit on both sides; gather them right after the smaller ones
+        double median = column[points[middle]];
+        int equalStart = partitionLess(column, points, from, to, median);
+        int node = points[equalStart];
+        axis[node] = (byte) a;
+        left[node] = build(features, points, from, equalStart);
+        right[node] = build(features, points, equalStart + 1, to);
+        return node;
+    }
+
+    private static int widestAxis(double[][] features, int[] points, int from, int to) {
+        int widest = 0;
+        double widestSpread = -1.0;
+        for (int a = 0; a < MaintenanceHistory.FEATURES; a++) {
+            double[] column = features[a];
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double value = column[points[i]];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double spread = max - min;
+            if (spread > widestSpread) {
+                widestSpread = spread;
+                widest = a;
+            }
+        }
+        return widest;
+    }
+
+    // Moves the points below the pivot value to the front of [from, to) and returns where the rest starts
+    private static int partitionLess(double[] column, int[] points, int from, int to, double pivot) {
+        int store = from;
+        for (int i = from; i < to; i++) {
+            if (column[points[i]] < pivot) {
+                swap(points, i, store++);
+            }
+        }
+        return store;
+    }
+
+    // Quickselect: afterwards points[nth] holds the point whose coordinate ranks nth in [low, high]
+    private static void select(double[] column, int[] points, int low, int high, int nth) {
+        while (high > low) {
+            double pivot = column[points[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (column[points[i]] < pivot) {
+                    i++;
+                }
+                while (column[points[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(points, i++, j--);
+                }
+            }
+            if (nth <= j) {
+                high = j;
+            } else if (nth >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(int[] points, int i, int j) {
+        int point = points[i];
+        points[i] = points[j];
+        points[j] = point;
+    }
+
+    @Override
+    public void search(double[][] features, byte[] labels, int size, NeighbourHeap heap) {
+        // An unlucky insertion order can leave chains far deeper than log2(size) until the next rebuild, so the
+        // descent keeps its own stack instead of recursing
+        SearchStack stack = SEARCH_STACKS.get();
+        int pending = 0;
+        int node = root;
+        while (true) {
+            while (node != -1) {
+                // A point further than the k-th nearest is rejected by the heap whatever its exact distance
+                double limit = heap.isFull() ? heap.worstDistance() : Double.POSITIVE_INFINITY;
+                heap.offer(MaintenanceHistory.squaredDistance(features, node, heap.query, limit), node, labels[node]);
+                int a = axis[node];
+                double difference = heap.query[a] - features[a][node];
+                int far = difference < 0 ? right[node] : left[node];
+                if (far != -1) {
+                    if (pending == stack.nodes.length) {
+                        stack.grow();
+                    }
+                    stack.nodes[pending] = far;
+                    stack.bounds[pending++] = difference * difference;
+                }
+                node = difference < 0 ? left[node] : right[node];
+            }
+            // The far side is checked only once everything nearer has been searched, as in a recursive descent
+            do {
+                if (pending == 0) {
+                    return;
+                }
+                pending--;
+            } while (heap.isFull() && stack.bounds[pending] > heap.worstDistance() * PRUNE_SLACK);
+            node = stack.nodes[pending];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+// k-nearest-neighbour vote over the maintenance history. Every learned point is kept, subject to the history's
+// retention policy, and a prediction searches them through the history's index unless the PredictionCache
+// already holds the neighbourhood of a nearly identical query.
+public final class KnnMaintenancePredictor implements MaintenancePredictor {
+    static final String NAME = "knn";
+    // Neighbours that vote in a prediction
+    static final int NEIGHBOURS = 3;
+
+    // Opened on first use, so ServiceLoader can instantiate this backend without touching the history file
+    private volatile MaintenanceHistory history;
+    // Null when -Dspindle.predictor.cache.size=0
+    private final PredictionCache cache;
+
+    public KnnMaintenancePredictor() {
+        this(null, PredictionCache.fromSystemProperties());
+    }
+
+    KnnMaintenancePredictor(MaintenanceHistory history, PredictionCache cache) {
+        this.history = history;
+        this.cache = cache;
+    }
+
+    private MaintenanceHistory history() {
+        MaintenanceHistory current = history;
+        if (current == null) {
+            synchronized (this) {
+                current = history;
+                if (current == null) {
+                    current = MaintenanceHistory.fromSystemProperties();
+                    history = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public String getName() { return NAME; }
+
+    @Override
+    public long getObservationCount() { return history().size(); }
+
+    @Override
+    public PredictionCacheStatistics getCacheStatistics() {
+        return cache == null ? PredictionCacheStatistics.DISABLED : cache.statistics();
+    }
+
+    @Override
+    public void learn(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                      double wheelWear, int label) {
+        history().add(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label);
+    }
+
+    @Override
+    public int predict(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                       double wheelWear) {
+        int yesCount;
+        if (cache != null) {
+            double[] query = {vibration, temperature, load, bearingLife, spindleLife, wheelWear};
+            yesCount = cache.neighbourhood(history(), query, NEIGHBOURS).positives();
+        } else {
+            yesCount = history().countPositiveNeighbours(vibration, temperature, load, bearingLife, spindleLife,
+                                                       wheelWear, NEIGHBOURS);
+        }
+        return yesCount > NEIGHBOURS / 2 ? 1 : 0;
+    }
+
+    // Searches the queries in parallel (in tiles for block-scanned histories) and reports the distances to each one's neighbours
+    @Override
+    public PredictionBatch predictBatch(double[][] queries, ForkJoinPool pool) {
+        int k = NEIGHBOURS;
+        int[] positives = new int[queries.length];
+        int[] counts = new int[queries.length];
+        double[] distances = new double[queries.length * k];
+        history().searchBatch(queries, k, pool, positives, counts, distances);
+
+        int[] labels = new int[queries.length];
+        for (int q = 0; q < queries.length; q++) {
+            labels[q] = positives[q] > k / 2 ? 1 : 0;
+        }
+        return new PredictionBatch(k, labels, counts, distances);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package code.grindlespindledesign.simulation;
+
+// Brute-force search: distances are computed a block at a time and only points that can enter the heap are
+// offered. A batch walks the history once, running every query against each block while it is in cache.
+final class LinearScanIndex implements NeighbourIndex {
+
+    @Override
+    public void pointAdded(double[][] features, int index) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void search(double[][] features, byte[] labels, int size, NeighbourHeap heap) {
+        double[] distances = MaintenanceHistory.scanBlock().distances;
+        for (int start = 0; start < size; start += MaintenanceHistory.SCAN_BLOCK) {
+            int count = Math.min(MaintenanceHistory.SCAN_BLOCK, size - start);
+            MaintenanceHistory.offerBlock(features, labels, start, count, start, heap, distances);
+        }
+    }
+
+    @Override
+    public boolean sharesBatchWork() {
+        return true;
+    }
+
+    @Override
+    public void searchBatch(double[][] features, byte[] labels, int size, NeighbourHeap[] heaps, int count) {
+        double[] distances = MaintenanceHistory.scanBlock().distances;
+        for (int start = 0; start < size; start += MaintenanceHistory.SCAN_BLOCK) {
+            int blockCount = Math.min(MaintenanceHistory.SCAN_BLOCK, size - start);
+            for (int q = 0; q < count; q++) {
+                MaintenanceHistory.offerBlock(features, labels, start, blockCount, start, heaps[q], distances);
+            }
+        }
+    }
+}
\ No newline at end of file
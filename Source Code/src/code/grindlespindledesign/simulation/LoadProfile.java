@@ -0,0 +1,119 @@
+package code.grindlespindledesign.simulation;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
+
+// Immutable load samples (N) taken at a fixed time step, stored as a primitive array
+public final class LoadProfile {
+    private final double[] samples;
+    private final double timeStep;
+
+    private LoadProfile(double[] samples, double timeStep) {
+        this.samples = samples;
+        this.timeStep = timeStep;
+    }
+
+    public static LoadProfile of(double[] samples, double timeStep) {
+        return new LoadProfile(samples.clone(), timeStep);
+    }
+
+    public static LoadProfile of(List<Double> samples, double timeStep) {
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.get(i);
+        }
+        return new LoadProfile(values, timeStep);
+    }
+
+    // Takes ownership of the array without copying; callers must not modify it afterwards
+    static LoadProfile wrap(double[] samples, double timeStep) {
+        return new LoadProfile(samples, timeStep);
+    }
+
+    public int size() { return samples.length; }
+
+    public boolean isEmpty() { return samples.length == 0; }
+
+    public double get(int index) { return samples[index]; }
+
+    public double getTimeStep() { return timeStep; }
+
+    public double getDuration() { return samples.length * timeStep; }
+
+    public double sum() {
+        double sum = 0.0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        return sum;
+    }
+
+    public double average(double defaultValue) {
+        return samples.length == 0 ? defaultValue : sum() / samples.length;
+    }
+
+    public double max(double defaultValue) {
+        if (samples.length == 0) {
+            return defaultValue;
+        }
+        double max = samples[0];
+        for (int i = 1; i < samples.length; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    public double min(double defaultValue) {
+        if (samples.length == 0) {
+            return defaultValue;
+        }
+        double min = samples[0];
+        for (int i = 1; i < samples.length; i++) {
+            min = Math.min(min, samples[i]);
+        }
+        return min;
+    }
+
+    public double last() {
+        if (samples.length == 0) {
+            throw new NoSuchElementException("Load profile is empty");
+        }
+        return samples[samples.length - 1];
+    }
+
+    public void forEach(DoubleConsumer action) {
+        for (double sample : samples) {
+            action.accept(sample);
+        }
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        return Arrays.stream(samples).iterator();
+    }
+
+    public DoubleBuffer asBuffer() {
+        return DoubleBuffer.wrap(samples).asReadOnlyBuffer();
+    }
+
+    public double[] toArray() {
+        return samples.clone();
+    }
+
+    public List<Double> toList() {
+        List<Double> list = new ArrayList<>(samples.length);
+        for (double sample : samples) {
+            list.add(sample);
+        }
+        return list;
+    }
+
+    // Direct access for kernels in this package; never exposed or mutated
+    double[] samples() {
+        return samples;
+    }
+}
\ No newline at end of file
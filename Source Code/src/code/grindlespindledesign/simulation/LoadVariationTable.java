@@ -0,0 +1,46 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// One period of the sinusoidal load factor 1 + amplitude * sin(2*pi*t / period), built once per
+// (period, time step, amplitude). Tables only exist when the period is a whole number of time steps.
+//
+// Sample i reads the factor at (i mod length) * timeStep rather than at i * timeStep, so it is not
+// bit-identical to evaluating factor() per sample: the per-sample argument picks up rounding that grows
+// with i, and over 1M samples the two differ in the last bits for about 90% of samples (at most 1.6e-11
+// relative). Equal seeds still give identical profiles, and every path that has a table reads it.
+final class LoadVariationTable {
+    private static final int MAX_TABLE_LENGTH = 1 << 20;
+    private static final double[] NOT_PERIODIC = new double[0];
+    private static final ConcurrentHashMap<Key, double[]> tables = new ConcurrentHashMap<>();
+
+    private record Key(double period, double timeStep, double amplitude) {
+    }
+
+    private LoadVariationTable() {
+    }
+
+    // Returns the factors for one period, or null if the pattern does not repeat on the time grid
+    static double[] factors(double period, double timeStep, double amplitude) {
+        double[] table = tables.computeIfAbsent(new Key(period, timeStep, amplitude), LoadVariationTable::build);
+        return table == NOT_PERIODIC ? null : table;
+    }
+
+    static double factor(double time, double period, double amplitude) {
+        double variation = Math.sin(2 * Math.PI * time / period) * amplitude;
+        return 1.0 + variation;
+    }
+
+    private static double[] build(Key key) {
+        double stepsPerPeriod = key.period() / key.timeStep();
+        long length = Math.round(stepsPerPeriod);
+        if (length < 1 || length > MAX_TABLE_LENGTH || Math.abs(stepsPerPeriod - length) > 1e-9) {
+            return NOT_PERIODIC;
+        }
+        double[] table = new double[(int) length];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = factor(i * key.timeStep(), key.period(), key.amplitude());
+        }
+        return table;
+    }
+}
\ No newline at end of file
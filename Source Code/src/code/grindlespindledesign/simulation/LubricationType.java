@@ -0,0 +1,31 @@
+package code.grindlespindledesign.simulation;
+
+public enum LubricationType {
+    GREASE("Grease", 0.8),
+    OIL_MIST("Oil-Mist", 1.0),
+    OIL_AIR("Oil-Air", 1.2);
+
+    private final String label;
+    private final double lifeFactor;  // bearing life adjustment
+
+    LubricationType(String label, double lifeFactor) {
+        this.label = label;
+        this.lifeFactor = lifeFactor;
+    }
+
+    public String getLabel() { return label; }
+
+    public double getLifeFactor() { return lifeFactor; }
+
+    public static LubricationType fromLabel(String label) {
+        for (LubricationType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown lubrication type: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
\ No newline at end of file
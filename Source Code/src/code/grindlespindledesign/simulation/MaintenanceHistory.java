@@ -0,0 +1,768 @@
+package code.grindlespindledesign.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+// Labelled operating points used by the k-nearest-neighbour maintenance prediction, stored column-wise either
+// in primitive arrays searched through a NeighbourIndex, or off the heap in a HistoryStore that is scanned
+// linearly. Queries share the read lock and appends take the write lock. A MaintenanceKnowledgeBase replaces
+// all of these when appends and queries from many threads must not wait for each other.
+//
+// Features are divided by the FeatureScaling scales once, and neighbours are ranked by squared distance in
+// that space. The heap arrays hold the scaled values and are rescaled in place when a scale drifts; stores
+// keep the raw values, which are scaled as each block is loaded. The ranges of a reopened store are read in
+// one pass before its first query.
+//
+// The heap arrays enforce a RetentionPolicy on insert. Evicted points are marked with the EVICTED label, which
+// searches skip, and once they make up half of the arrays the live points are compacted to the front and
+// re-added to the index, so both memory and search cost stay proportional to the retained points.
+final class MaintenanceHistory {
+    static final int FEATURES = 6;
+    // Initial divisors that bring vibration, temperature, load, bearing life, spindle life and wheel wear to
+    // comparable ranges, until FeatureScaling has seen enough data to replace them
+    static final double[] FEATURE_SCALES = {2.0, 30.0, 1500.0, 50000.0, 1.0, 40.0};
+    // Points per pass of the linear-scan distance kernel; a block of columns stays in the L1/L2 cache
+    static final int SCAN_BLOCK = 1024;
+    // Queries a batch task runs against each history block while the block is in cache
+    static final int QUERY_TILE = 64;
+    private static final int INITIAL_CAPACITY = 128;
+    // Label of an evicted point that has not been compacted away yet
+    static final byte EVICTED = -1;
+    private static final int MIN_COMPACTION = 64;
+    private static final long RESERVOIR_SEED = 0x5245_5345_5256L;
+    // Appended points beyond which bringing a neighbourhood up to date costs more than a new search
+    static final int MAX_CATCH_UP = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Scratch heap per thread, so a query does not allocate
+    private final ThreadLocal<NeighbourHeap> heaps = new ThreadLocal<>();
+    private final ThreadLocal<NeighbourHeap[]> tileHeaps = new ThreadLocal<>();
+    private static final ThreadLocal<ScanBlock> SCAN_BLOCKS = ThreadLocal.withInitial(ScanBlock::new);
+    private final NeighbourIndex index;
+    // Set instead of the arrays and index when the history is kept off the heap
+    private final HistoryStore store;
+    // Set instead of everything else when the history is searched through snapshots without locking
+    private final MaintenanceKnowledgeBase knowledgeBase;
+
+    private final RetentionPolicy retention;
+    private final SplittableRandom reservoirRandom = new SplittableRandom(RESERVOIR_SEED);
+    private LongSupplier clock = System::currentTimeMillis;
+    private final FeatureScaling scaling = new FeatureScaling();
+    // False until the ranges of the points already in the store have been observed
+    private volatile boolean storeObserved;
+    // Raw point being added and the scales before a rescale; used under the write lock only
+    private final double[] addedPoint = new double[FEATURES];
+    private final double[] previousScales = new double[FEATURES];
+    // Grows by one for every appended point, and by one for an add that evicts, moves or rescales points;
+    // rewrittenAt is the version of the last such add
+    private long version;
+    private long rewrittenAt;
+    private boolean rewritten;
+
+    // features[f][i] is feature f of point i divided by the current scale of f; size counts evicted points until they are compacted away
+    private double[][] features;
+    private byte[] label;
+    private long[] addedAt;
+    private int size;
+    private int live;
+    private final int[] liveByLabel = new int[2];
+    // Points offered to the reservoir, including those it did not keep
+    private long offered;
+    // Points before windowCursor are evicted, as are points of label l before labelCursors[l]
+    private int windowCursor;
+    private final int[] labelCursors = new int[2];
+
+    // Per-thread scratch for a linear scan: one block of feature columns and labels copied out of a store, and
+    // the squared distances from one query to the block
+    static final class ScanBlock {
+        final double[][] columns = new double[FEATURES][SCAN_BLOCK];
+        final byte[] labels = new byte[SCAN_BLOCK];
+        final double[] distances = new double[SCAN_BLOCK];
+    }
+
+    MaintenanceHistory(NeighbourIndex index, int initialCapacity) {
+        this(index, initialCapacity, RetentionPolicy.unbounded());
+    }
+
+    MaintenanceHistory(NeighbourIndex index, int initialCapacity, RetentionPolicy retention) {
+        this.index = index;
+        this.store = null;
+        this.knowledgeBase = null;
+        this.retention = retention;
+        this.storeObserved = true;
+        int capacity = Math.max(1, initialCapacity);
+        features = new double[FEATURES][capacity];
+        label = new byte[capacity];
+        addedAt = new long[capacity];
+    }
+
+    // Off-heap stores are append-only, so no retention policy applies to them
+    MaintenanceHistory(HistoryStore store) {
+        this.index = null;
+        this.store = store;
+        this.knowledgeBase = null;
+        this.retention = RetentionPolicy.unbounded();
+        this.storeObserved = store.size() == 0;
+        this.size = store.size();
+        this.live = size;
+    }
+
+    // The knowledge base is append-only as well, and keeps its own scales
+    MaintenanceHistory(MaintenanceKnowledgeBase knowledgeBase) {
+        this.index = null;
+        this.store = null;
+        this.knowledgeBase = knowledgeBase;
+        this.retention = RetentionPolicy.unbounded();
+        this.storeObserved = true;
+    }
+
+    // -Dspindle.history.file=<path> persists the history in a memory-mapped log and reuses it on the next
+    // start; -Dspindle.history.store=offheap keeps it off the heap for this run only, and
+    // -Dspindle.history.store=concurrent in a lock-free MaintenanceKnowledgeBase. Otherwise the heap arrays
+    // are searched through the index chosen by NeighbourIndex.fromSystemProperties.
+    static MaintenanceHistory fromSystemProperties() {
+        String file = System.getProperty("spindle.history.file");
+        if (file != null) {
+            try {
+                MaintenanceHistory history = new MaintenanceHistory(MappedHistoryLog.open(Path.of(file)));
+                // Flushes the log and releases its file lock when the JVM exits
+                Runtime.getRuntime().addShutdownHook(new Thread(history::close, "maintenance-history-close"));
+                return history;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to open maintenance history log " + file + ": " + e.getMessage());
+            }
+        }
+        String store = System.getProperty("spindle.history.store");
+        if ("offheap".equals(store)) {
+            return new MaintenanceHistory(new OffHeapColumnStore());
+        }
+        if ("concurrent".equals(store)) {
+            return new MaintenanceHistory(new MaintenanceKnowledgeBase(NeighbourIndex::fromSystemProperties));
+        }
+        return new MaintenanceHistory(NeighbourIndex.fromSystemProperties(), INITIAL_CAPACITY,
+                                      RetentionPolicy.fromSystemProperties());
+    }
+
+    // Time source for the retention window, in milliseconds
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Number of retained points
+    int size() {
+        if (knowledgeBase != null) {
+            return knowledgeBase.size();
+        }
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Only 0 and 1 are labels; anything else would index past the per-label counts or read as EVICTED
+    static void checkLabel(int label) {
+        if (label != 0 && label != 1) {
+            throw new IllegalArgumentException("Maintenance label must be 0 or 1, got " + label);
+        }
+    }
+
+    // Closes a memory-mapped log behind this history; other histories hold nothing that needs releasing
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (store instanceof MappedHistoryLog log) {
+                log.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close maintenance history log: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void add(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+             double wheelWear, int label) {
+        checkLabel(label);
+        if (knowledgeBase != null) {
+            knowledgeBase.append(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int sizeBefore = size;
+            addUnlocked(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label);
+            if (size != sizeBefore || rewritten) {
+                version++;
+                if (rewritten) {
+                    rewrittenAt = version;
+                    rewritten = false;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void addUnlocked(double vibration, double temperature, double load, double bearingLife,
+                             double spindleLife, double wheelWear, int label) {
+        if (store != null) {
+            store.append(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label);
+            if (storeObserved && observe(vibration, temperature, load, bearingLife, spindleLife, wheelWear)) {
+                rewritten = true;
+            }
+            size++;
+            live++;
+            return;
+        }
+
+        long now = clock.getAsLong();
+        offered++;
+        if (retention.windowMillis() > 0) {
+            evictOlderThan(now - retention.windowMillis());
+        }
+        int duplicate = retention.duplicateTolerance() > 0
+            ? findDuplicate(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label)
+            : -1;
+        if (duplicate >= 0) {
+            evict(duplicate);
+        } else {
+            if (liveByLabel[label] >= retention.quota(label)) {
+                evictOldest(label);
+            }
+            // Algorithm R: the n-th point offered replaces a random retained point with probability capacity / n
+            int capacity = retention.capacity();
+            if (capacity > 0 && live >= capacity) {
+                if (reservoirRandom.nextLong(offered) >= capacity) {
+                    return;
+                }
+                evict(randomLivePoint());
+            }
+        }
+        if (size - live >= Math.max(live, MIN_COMPACTION)) {
+            compact();
+        }
+
+        if (size == this.label.length) {
+            grow();
+        }
+        if (observe(vibration, temperature, load, bearingLife, spindleLife, wheelWear)) {
+            rescale();
+        }
+        for (int f = 0; f < FEATURES; f++) {
+            features[f][size] = addedPoint[f] * scaling.inverse(f);
+        }
+        this.label[size] = (byte) label;
+        addedAt[size] = now;
+        index.pointAdded(features, size);
+        size++;
+        live++;
+        liveByLabel[label]++;
+    }
+
+    // Adds the point to the running ranges; returns true if a scale changed
+    private boolean observe(double vibration, double temperature, double load, double bearingLife,
+                            double spindleLife, double wheelWear) {
+        addedPoint[0] = vibration;
+        addedPoint[1] = temperature;
+        addedPoint[2] = load;
+        addedPoint[3] = bearingLife;
+        addedPoint[4] = spindleLife;
+        addedPoint[5] = wheelWear;
+        return scaling.observe(addedPoint, previousScales);
+    }
+
+    // Feeds the points already in the store to the running ranges, once
+    private void observeStore() {
+        lock.writeLock().lock();
+        try {
+            if (storeObserved) {
+                return;
+            }
+            ScanBlock block = scanBlock();
+            for (int start = 0; start < size; start += SCAN_BLOCK) {
+                int blockCount = Math.min(SCAN_BLOCK, size - start);
+                store.loadBlock(start, blockCount, block);
+                for (int j = 0; j < blockCount; j++) {
+                    for (int f = 0; f < FEATURES; f++) {
+                        addedPoint[f] = block.columns[f][j];
+                    }
+                    scaling.observe(addedPoint, previousScales);
+                }
+            }
+            storeObserved = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Brings the stored columns to the new scales. Every point of a column is multiplied by the same factor,
+    // so the index stays valid: its split values are points of the column themselves.
+    private void rescale() {
+        rewritten = true;
+        for (int f = 0; f < FEATURES; f++) {
+            double factor = previousScales[f] * scaling.inverse(f);
+            if (factor == 1.0) {
+                continue;
+            }
+            double[] column = features[f];
+            for (int i = 0; i < size; i++) {
+                column[i] *= factor;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = label.length * 2;
+        for (int f = 0; f < FEATURES; f++) {
+            features[f] = Arrays.copyOf(features[f], capacity);
+        }
+        label = Arrays.copyOf(label, capacity);
+        addedAt = Arrays.copyOf(addedAt, capacity);
+    }
+
+    private void evict(int point) {
+        rewritten = true;
+        liveByLabel[label[point]]--;
+        label[point] = EVICTED;
+        live--;
+    }
+
+    // Points are stored in insertion order, so the expired ones form a prefix of the live points
+    private void evictOlderThan(long cutoff) {
+        while (windowCursor < size) {
+            if (label[windowCursor] != EVICTED) {
+                if (addedAt[windowCursor] >= cutoff) {
+                    break;
+                }
+                evict(windowCursor);
+            }
+            windowCursor++;
+        }
+    }
+
+    private void evictOldest(int pointLabel) {
+        int cursor = labelCursors[pointLabel];
+        while (label[cursor] != pointLabel) {
+            cursor++;
+        }
+        evict(cursor);
+        labelCursors[pointLabel] = cursor + 1;
+    }
+
+    // At least half of the points are live between compactions, so this takes two draws on average
+    private int randomLivePoint() {
+        int point;
+        do {
+            point = reservoirRandom.nextInt(size);
+        } while (label[point] == EVICTED);
+        return point;
+    }
+
+    private int findDuplicate(double vibration, double temperature, double load, double bearingLife,
+                              double spindleLife, double wheelWear, int pointLabel) {
+        NeighbourHeap heap = search(vibration, temperature, load, bearingLife, spindleLife, wheelWear, 1);
+        int[] nearest = new int[1];
+        double tolerance = retention.duplicateTolerance();
+        if (heap.indices(nearest) == 0 || heap.worstDistance() > tolerance * tolerance
+            || label[nearest[0]] != pointLabel) {
+            return -1;
+        }
+        return nearest[0];
+    }
+
+    // Moves the live points to the front, keeping their order, and rebuilds the index over them
+    private void compact() {
+        rewritten = true;
+        int target = 0;
+        for (int i = 0; i < size; i++) {
+            if (label[i] == EVICTED) {
+                continue;
+            }
+            if (target != i) {
+                for (int f = 0; f < FEATURES; f++) {
+                    features[f][target] = features[f][i];
+                }
+                label[target] = label[i];
+                addedAt[target] = addedAt[i];
+            }
+            target++;
+        }
+        size = target;
+        windowCursor = 0;
+        Arrays.fill(labelCursors, 0);
+        index.clear();
+        for (int i = 0; i < size; i++) {
+            index.pointAdded(features, i);
+        }
+    }
+
+    // Number of maintenance-needed labels among the k points nearest to the query. Equal distances keep
+    // the earlier point, as a stable sort of all distances would.
+    int countPositiveNeighbours(double vibration, double temperature, double load, double bearingLife,
+                                double spindleLife, double wheelWear, int k) {
+        return search(vibration, temperature, load, bearingLife, spindleLife, wheelWear, k).positiveCount();
+    }
+
+    // Positions of the k nearest points in no particular order; returns how many were written
+    int nearestNeighbours(double[] query, int k, int[] out) {
+        return search(query[0], query[1], query[2], query[3], query[4], query[5], k).indices(out);
+    }
+
+    // Version of the retained points, see the version field; a knowledge base reports its snapshot version
+    long version() {
+        if (knowledgeBase != null) {
+            return knowledgeBase.snapshot().version();
+        }
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The k nearest neighbours of the query, nearest first, and the version they were found at
+    Neighbourhood neighbourhood(double[] query, int k) {
+        NeighbourHeap heap = queryHeap(k);
+        System.arraycopy(query, 0, heap.query, 0, FEATURES);
+        long seen;
+        if (knowledgeBase != null) {
+            MaintenanceKnowledgeBase.Snapshot snapshot = knowledgeBase.snapshot();
+            seen = snapshot.version();
+            snapshot.search(heap);
+        } else {
+            if (!storeObserved) {
+                observeStore();
+            }
+            lock.readLock().lock();
+            try {
+                seen = version;
+                searchLocked(heap);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        double[] distances = new double[k];
+        byte[] labels = new byte[k];
+        int count = heap.sorted(distances, labels);
+        return new Neighbourhood(distances, labels, count, seen);
+    }
+
+    // Brings a neighbourhood of the query up to date with the points appended since it was found, breaking ties
+    // towards the older point as a search does. Returns null when points were evicted, moved or rescaled since,
+    // or too many were appended, so that only a new search can tell.
+    Neighbourhood update(Neighbourhood neighbourhood, double[] query) {
+        if (knowledgeBase != null) {
+            return knowledgeBase.snapshot().update(neighbourhood, query);
+        }
+        lock.readLock().lock();
+        try {
+            long appended = version - neighbourhood.version();
+            if (appended == 0) {
+                return neighbourhood;
+            }
+            if (neighbourhood.version() < rewrittenAt || appended > MAX_CATCH_UP || store != null) {
+                return null;
+            }
+            double[] scaled = new double[FEATURES];
+            scaling.normalize(query, scaled);
+            double[] distances = neighbourhood.squaredDistances().clone();
+            byte[] labels = neighbourhood.labels().clone();
+            int k = distances.length;
+            int count = neighbourhood.count();
+            // Points appended since the neighbourhood was found are the last ones, none of them evicted
+            for (int i = size - (int) appended; i < size; i++) {
+                double limit = count < k ? Double.POSITIVE_INFINITY : distances[count - 1];
+                count = insertAppended(distances, labels, count, squaredDistance(features, i, scaled, limit), label[i]);
+            }
+            return new Neighbourhood(distances, labels, count, version);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inserts a point appended after a neighbourhood was found into its sorted distances and labels and returns
+    // the new count. The appended point is the newest, so it goes after any equal distance.
+    static int insertAppended(double[] distances, byte[] labels, int count, double distance, byte pointLabel) {
+        int k = distances.length;
+        if (count == k && distance >= distances[count - 1]) {
+            return count;
+        }
+        int j = count < k ? count++ : count - 1;
+        while (j > 0 && distances[j - 1] > distance) {
+            distances[j] = distances[j - 1];
+            labels[j] = labels[j - 1];
+            j--;
+        }
+        distances[j] = distance;
+        labels[j] = pointLabel;
+        return count;
+    }
+
+    private NeighbourHeap queryHeap(int k) {
+        NeighbourHeap heap = heaps.get();
+        if (heap == null || heap.capacity() < k) {
+            heap = new NeighbourHeap(k);
+            heaps.set(heap);
+        }
+        heap.reset(k);
+        return heap;
+    }
+
+    private NeighbourHeap search(double vibration, double temperature, double load, double bearingLife,
+                                 double spindleLife, double wheelWear, int k) {
+        NeighbourHeap heap = queryHeap(k);
+        double[] query = heap.query;
+        query[0] = vibration;
+        query[1] = temperature;
+        query[2] = load;
+        query[3] = bearingLife;
+        query[4] = spindleLife;
+        query[5] = wheelWear;
+
+        if (knowledgeBase != null) {
+            knowledgeBase.snapshot().search(heap);
+            return heap;
+        }
+        if (!storeObserved) {
+            observeStore();
+        }
+        lock.readLock().lock();
+        try {
+            searchLocked(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return heap;
+    }
+
+    // Scales heap.query in place and searches it; caller must hold the read lock
+    private void searchLocked(NeighbourHeap heap) {
+        scaling.normalize(heap.query, heap.query);
+        if (store != null) {
+            scanStore(new NeighbourHeap[]{heap}, 1);
+        } else {
+            index.search(features, label, size, heap);
+        }
+    }
+
+    // Runs the k-NN search for every query on the pool. For query q, positives[q] is the number of
+    // maintenance-needed labels among its neighbours, counts[q] the number of neighbours found (k unless the
+    // history is smaller) and distances[q * k ...] their distances, nearest first. Block-scanned histories (the
+    // linear index and the off-heap and mapped stores) run QUERY_TILE queries per task against each block while
+    // it is in cache; tree and graph indexes gain nothing from that and are searched query by query. Each task
+    // takes the read lock separately, so appends made during the batch may be seen by later tasks only; a
+    // knowledge base answers the whole batch from one snapshot.
+    void searchBatch(double[][] queries, int k, ForkJoinPool pool, int[] positives, int[] counts, double[] distances) {
+        if (!storeObserved) {
+            observeStore();
+        }
+        MaintenanceKnowledgeBase.Snapshot snapshot = knowledgeBase != null ? knowledgeBase.snapshot() : null;
+        boolean tiled = store != null || (knowledgeBase != null ? knowledgeBase.sharesBatchWork()
+                                                                : index.sharesBatchWork());
+        if (!tiled) {
+            pool.submit(() -> IntStream.range(0, queries.length).parallel().forEach(q -> {
+                NeighbourHeap heap = queryHeap(k);
+                System.arraycopy(queries[q], 0, heap.query, 0, FEATURES);
+                if (snapshot != null) {
+                    snapshot.search(heap);
+                } else {
+                    lock.readLock().lock();
+                    try {
+                        searchLocked(heap);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+                report(heap, q, k, positives, counts, distances);
+            })).join();
+            return;
+        }
+
+        int tiles = (queries.length + QUERY_TILE - 1) / QUERY_TILE;
+        pool.submit(() -> IntStream.range(0, tiles).parallel().forEach(tile -> {
+            int from = tile * QUERY_TILE;
+            int count = Math.min(QUERY_TILE, queries.length - from);
+            NeighbourHeap[] queryHeaps = tileHeaps(k);
+            for (int q = 0; q < count; q++) {
+                queryHeaps[q].reset(k);
+            }
+
+            if (snapshot != null) {
+                for (int q = 0; q < count; q++) {
+                    System.arraycopy(queries[from + q], 0, queryHeaps[q].query, 0, FEATURES);
+                }
+                snapshot.searchBatch(queryHeaps, count);
+            } else {
+                lock.readLock().lock();
+                try {
+                    for (int q = 0; q < count; q++) {
+                        scaling.normalize(queries[from + q], queryHeaps[q].query);
+                    }
+                    if (store != null) {
+                        scanStore(queryHeaps, count);
+                    } else {
+                        index.searchBatch(features, label, size, queryHeaps, count);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            for (int q = 0; q < count; q++) {
+                report(queryHeaps[q], from + q, k, positives, counts, distances);
+            }
+        })).join();
+    }
+
+    private static void report(NeighbourHeap heap, int q, int k, int[] positives, int[] counts, double[] distances) {
+        positives[q] = heap.positiveCount();
+        int offset = q * k;
+        int found = heap.sortedDistances(distances, offset);
+        for (int n = offset; n < offset + found; n++) {
+            distances[n] = Math.sqrt(distances[n]);
+        }
+        counts[q] = found;
+    }
+
+    private NeighbourHeap[] tileHeaps(int k) {
+        NeighbourHeap[] tile = tileHeaps.get();
+        if (tile == null || tile[0].capacity() < k) {
+            tile = new NeighbourHeap[QUERY_TILE];
+            for (int q = 0; q < tile.length; q++) {
+                tile[q] = new NeighbourHeap(k);
+            }
+            tileHeaps.set(tile);
+        }
+        return tile;
+    }
+
+    // Loads each block of the store once and runs every query against it; caller must hold the read lock
+    private void scanStore(NeighbourHeap[] queries, int count) {
+        ScanBlock block = scanBlock();
+        for (int start = 0; start < size; start += SCAN_BLOCK) {
+            int blockCount = Math.min(SCAN_BLOCK, size - start);
+            store.loadBlock(start, blockCount, block);
+            scaling.normalizeBlock(block.columns, blockCount);
+            for (int q = 0; q < count; q++) {
+                offerBlock(block.columns, block.labels, 0, blockCount, start, queries[q], block.distances);
+            }
+        }
+    }
+
+    static ScanBlock scanBlock() {
+        return SCAN_BLOCKS.get();
+    }
+
+    // Offers the points of one block that can still enter the heap. The block starts at position from in the
+    // columns and labels, and its first point is history point first.
+    static void offerBlock(double[][] columns, byte[] labels, int from, int count, int first, NeighbourHeap heap,
+                           double[] distances) {
+        blockSquaredDistances(columns, from, count, heap.query, distances);
+        for (int j = 0; j < count; j++) {
+            double distance = distances[j];
+            if (!heap.isFull() || distance <= heap.worstDistance()) {
+                heap.offer(distance, first + j, labels[from + j]);
+            }
+        }
+    }
+
+    // Squared Euclidean distance between scaled point i and the scaled query
+    static double squaredDistance(double[][] features, int i, double[] query) {
+        double vibDiff = query[0] - features[0][i];
+        double tempDiff = query[1] - features[1][i];
+        double loadDiff = query[2] - features[2][i];
+        double bearingLifeDiff = query[3] - features[3][i];
+        double spindleLifeDiff = query[4] - features[4][i];
+        double wheelWearDiff = query[5] - features[5][i];
+
+        return vibDiff * vibDiff +
+            tempDiff * tempDiff +
+            loadDiff * loadDiff +
+            bearingLifeDiff * bearingLifeDiff +
+            spindleLifeDiff * spindleLifeDiff +
+            wheelWearDiff * wheelWearDiff;
+    }
+
+    // As squaredDistance, but gives up once the partial sum exceeds limit and returns that partial sum, which
+    // is then known to be larger than limit. A complete sum is bit-identical to squaredDistance.
+    static double squaredDistance(double[][] features, int i, double[] query, double limit) {
+        double sum = 0.0;
+        for (int f = 0; f < FEATURES; f++) {
+            double diff = query[f] - features[f][i];
+            sum += diff * diff;
+            if (sum > limit) {
+                return sum;
+            }
+        }
+        return sum;
+    }
+
+    // Squared distances from the query to points from..from+count-1, one feature column at a time so every
+    // pass is a sequential read. Adds the terms in the same order as squaredDistance(), so the results are
+    // bit-identical to it.
+    static void blockSquaredDistances(double[][] columns, int from, int count, double[] query, double[] out) {
+        double[] column = columns[0];
+        double q = query[0];
+        for (int j = 0; j < count; j++) {
+            double diff = q - column[from + j];
+            out[j] = diff * diff;
+        }
+        for (int f = 1; f < FEATURES; f++) {
+            column = columns[f];
+            q = query[f];
+            for (int j = 0; j < count; j++) {
+                double diff = q - column[from + j];
+                out[j] += diff * diff;
+            }
+        }
+    }
+
+    // Raw value of a feature; heap points are scaled back, so this may differ from the added value in the
+    // last bits
+    double feature(int feature, int index) {
+        if (knowledgeBase != null) {
+            return knowledgeBase.snapshot().feature(feature, index);
+        }
+        lock.readLock().lock();
+        try {
+            return store != null ? store.feature(feature, index) : features[feature][index] * scaling.scale(feature);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Multiplier that maps a raw feature value into the space distances are taken in
+    double inverseScale(int feature) {
+        if (knowledgeBase != null) {
+            return knowledgeBase.snapshot().inverseScale(feature);
+        }
+        lock.readLock().lock();
+        try {
+            return scaling.inverse(feature);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int label(int index) {
+        if (knowledgeBase != null) {
+            return knowledgeBase.snapshot().label(index);
+        }
+        return store != null ? store.label(index) : label[index];
+    }
+}
\ No newline at end of file
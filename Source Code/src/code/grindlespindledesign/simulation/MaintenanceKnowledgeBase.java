@@ -0,0 +1,391 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// Append-only maintenance history that readers search without taking any lock. Appends claim a slot with an
+// atomic counter, write the raw point into fixed-size chunks and then publish every completed slot in order,
+// so the published count only ever covers fully written points.
+//
+// A reader works on a Snapshot: the published count together with the current Layout, an immutable list of
+// scaled and indexed segments covering a prefix of the points. The unindexed tail after them is shorter than
+// a chunk and is scanned linearly. When the tail fills a chunk, the appending thread that notices first turns
+// it into a segment and merges segments of equal size, as in a binary counter, so every point is copied
+// O(log n) times and a query searches O(log n) indexes. When a feature range drifts from the layout's scales,
+// all points are rebuilt into a single segment with the new scales. Other threads keep appending and reading
+// while a layout is built.
+final class MaintenanceKnowledgeBase {
+    static final int CHUNK = MaintenanceHistory.SCAN_BLOCK;
+    private static final int CHUNKS_PER_PAGE = 1024;
+    private static final int PAGES = 1024;
+
+    private final Supplier<NeighbourIndex> indexes;
+    // Whether the segment indexes scan in blocks, so that a batch is worth searching in tiles
+    private final boolean sharesBatchWork;
+    // Chunk c is pages[c / CHUNKS_PER_PAGE][c % CHUNKS_PER_PAGE]; both levels are created on demand and never
+    // replaced, so a reader can follow them without synchronisation
+    private final AtomicReferenceArray<AtomicReferenceArray<Chunk>> pages = new AtomicReferenceArray<>(PAGES);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+    // Running feature ranges as double bits; the range is negative until the first point
+    private final AtomicLongArray minimum = new AtomicLongArray(MaintenanceHistory.FEATURES);
+    private final AtomicLongArray maximum = new AtomicLongArray(MaintenanceHistory.FEATURES);
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Layout layout;
+
+    // Raw points of CHUNK consecutive slots; ready[j] is set once slot j has been written
+    private static final class Chunk {
+        final double[][] columns = new double[MaintenanceHistory.FEATURES][CHUNK];
+        final byte[] labels = new byte[CHUNK];
+        final AtomicIntegerArray ready = new AtomicIntegerArray(CHUNK);
+    }
+
+    // Points start..start+size-1, multiplied by the layout's inverse scales and indexed from position 0
+    private static final class Segment {
+        final int start;
+        final int size;
+        final double[][] features;
+        final byte[] labels;
+        final NeighbourIndex index;
+
+        Segment(int start, int size, double[][] features, byte[] labels, NeighbourIndex index) {
+            this.start = start;
+            this.size = size;
+            this.features = features;
+            this.labels = labels;
+            this.index = index;
+        }
+    }
+
+    // Immutable once published. Segments are contiguous from point 0 to indexed, largest first.
+    private static final class Layout {
+        final long generation;
+        final double[] scale;
+        final double[] inverse;
+        final Segment[] segments;
+        final int indexed;
+
+        Layout(long generation, double[] scale, Segment[] segments) {
+            this.generation = generation;
+            this.scale = scale;
+            this.inverse = new double[scale.length];
+            for (int f = 0; f < scale.length; f++) {
+                inverse[f] = 1.0 / scale[f];
+            }
+            this.segments = segments;
+            Segment last = segments.length == 0 ? null : segments[segments.length - 1];
+            this.indexed = last == null ? 0 : last.start + last.size;
+        }
+    }
+
+    // Consistent view of the first size points. Later appends are not visible through it, and it stays valid
+    // however many points are appended or layouts built after it was taken.
+    final class Snapshot {
+        private final Layout layout;
+        private final int size;
+
+        private Snapshot(Layout layout, int size) {
+            this.layout = layout;
+            this.size = size;
+        }
+
+        int size() { return size; }
+
+        // The layout generation in the high half and the size in the low half, so that two snapshots share a
+        // version only if they hold the same points under the same scales
+        long version() { return layout.generation << 32 | size; }
+
+        double inverseScale(int feature) { return layout.inverse[feature]; }
+
+        // Offers the k nearest neighbours of heap.query, given in raw units and scaled in place
+        void search(NeighbourHeap heap) {
+            scaleQuery(heap);
+            for (Segment segment : layout.segments) {
+                heap.setBase(segment.start);
+                segment.index.search(segment.features, segment.labels, segment.size, heap);
+            }
+            heap.setBase(0);
+            scanTail(new NeighbourHeap[]{heap}, 1);
+        }
+
+        // As search, for the first count heaps; the tail is scaled once for all of them
+        void searchBatch(NeighbourHeap[] heaps, int count) {
+            for (int q = 0; q < count; q++) {
+                scaleQuery(heaps[q]);
+            }
+            for (Segment segment : layout.segments) {
+                for (int q = 0; q < count; q++) {
+                    heaps[q].setBase(segment.start);
+                }
+                segment.index.searchBatch(segment.features, segment.labels, segment.size, heaps, count);
+            }
+            for (int q = 0; q < count; q++) {
+                heaps[q].setBase(0);
+            }
+            scanTail(heaps, count);
+        }
+
+        private void scaleQuery(NeighbourHeap heap) {
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                heap.query[f] *= layout.inverse[f];
+            }
+        }
+
+        private void scanTail(NeighbourHeap[] heaps, int count) {
+            MaintenanceHistory.ScanBlock block = MaintenanceHistory.scanBlock();
+            int start = layout.indexed;
+            while (start < size) {
+                Chunk chunk = chunk(start / CHUNK);
+                int offset = start % CHUNK;
+                int blockCount = Math.min(CHUNK - offset, size - start);
+                for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                    double[] column = chunk.columns[f];
+                    double[] scaled = block.columns[f];
+                    double factor = layout.inverse[f];
+                    for (int j = 0; j < blockCount; j++) {
+                        scaled[j] = column[offset + j] * factor;
+                    }
+                }
+                System.arraycopy(chunk.labels, offset, block.labels, 0, blockCount);
+                for (int q = 0; q < count; q++) {
+                    MaintenanceHistory.offerBlock(block.columns, block.labels, 0, blockCount, start, heaps[q],
+                                                  block.distances);
+                }
+                start += blockCount;
+            }
+        }
+
+        // Brings a neighbourhood found on an earlier snapshot up to date by offering the points published since.
+        // Returns null when the scales changed, the neighbourhood is newer than this snapshot or too many points
+        // were appended, so that only a new search can tell.
+        Neighbourhood update(Neighbourhood neighbourhood, double[] query) {
+            long version = version();
+            if (neighbourhood.version() == version) {
+                return neighbourhood;
+            }
+            int seen = (int) neighbourhood.version();
+            if (neighbourhood.version() >>> 32 != layout.generation || seen > size
+                || size - seen > MaintenanceHistory.MAX_CATCH_UP) {
+                return null;
+            }
+            double[] scaled = new double[MaintenanceHistory.FEATURES];
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                scaled[f] = query[f] * layout.inverse[f];
+            }
+            double[] distances = neighbourhood.squaredDistances().clone();
+            byte[] labels = neighbourhood.labels().clone();
+            int count = neighbourhood.count();
+            // Scaled exactly as a segment or the tail would be, so the distances match a new search
+            MaintenanceHistory.ScanBlock block = MaintenanceHistory.scanBlock();
+            for (int i = seen; i < size; i++) {
+                Chunk chunk = chunk(i / CHUNK);
+                int j = i % CHUNK;
+                for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                    block.columns[f][0] = chunk.columns[f][j] * layout.inverse[f];
+                }
+                double limit = count < distances.length ? Double.POSITIVE_INFINITY : distances[count - 1];
+                double distance = MaintenanceHistory.squaredDistance(block.columns, 0, scaled, limit);
+                count = MaintenanceHistory.insertAppended(distances, labels, count, distance, chunk.labels[j]);
+            }
+            return new Neighbourhood(distances, labels, count, version);
+        }
+
+        double feature(int feature, int index) { return chunk(index / CHUNK).columns[feature][index % CHUNK]; }
+
+        int label(int index) { return chunk(index / CHUNK).labels[index % CHUNK]; }
+    }
+
+    MaintenanceKnowledgeBase(Supplier<NeighbourIndex> indexes) {
+        this.indexes = indexes;
+        this.sharesBatchWork = indexes.get().sharesBatchWork();
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            minimum.set(f, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+            maximum.set(f, Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+        }
+        layout = new Layout(0, MaintenanceHistory.FEATURE_SCALES.clone(), new Segment[0]);
+    }
+
+    // Layout read before the count, so the layout never covers more points than the snapshot
+    Snapshot snapshot() {
+        Layout current = layout;
+        return new Snapshot(current, published.get());
+    }
+
+    int size() {
+        return published.get();
+    }
+
+    boolean sharesBatchWork() {
+        return sharesBatchWork;
+    }
+
+    void append(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                double wheelWear, int label) {
+        MaintenanceHistory.checkLabel(label);
+        int slot = reserved.getAndIncrement();
+        if (slot < 0) {
+            throw new IllegalStateException("Maintenance knowledge base is full");
+        }
+        Chunk chunk = chunkForWrite(slot / CHUNK);
+        int j = slot % CHUNK;
+        double[][] columns = chunk.columns;
+        columns[0][j] = vibration;
+        columns[1][j] = temperature;
+        columns[2][j] = load;
+        columns[3][j] = bearingLife;
+        columns[4][j] = spindleLife;
+        columns[5][j] = wheelWear;
+        chunk.labels[j] = (byte) label;
+        chunk.ready.set(j, 1);
+
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            widen(f, columns[f][j]);
+        }
+        publish();
+        // A thread that loses the race leaves the work to the winner, which checks again before it finishes
+        while (rebuildDue() && rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuild();
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+    }
+    private Chunk chunkForWrite(int index) {
+        int page = index / CHUNKS_PER_PAGE;
+        if (page >= PAGES) {
+            throw new IllegalStateException("Maintenance knowledge base is full");
+        }
+        AtomicReferenceArray<Chunk> chunks = pages.get(page);
+        if (chunks == null) {
+            pages.compareAndSet(page, null, new AtomicReferenceArray<>(CHUNKS_PER_PAGE));
+            chunks = pages.get(page);
+        }
+        Chunk chunk = chunks.get(index % CHUNKS_PER_PAGE);
+        if (chunk == null) {
+            chunks.compareAndSet(index % CHUNKS_PER_PAGE, null, new Chunk());
+            chunk = chunks.get(index % CHUNKS_PER_PAGE);
+        }
+        return chunk;
+    }
+
+    // Only valid for chunks holding published slots
+    private Chunk chunk(int index) {
+        return pages.get(index / CHUNKS_PER_PAGE).get(index % CHUNKS_PER_PAGE);
+    }
+
+    private boolean isReady(int slot) {
+        AtomicReferenceArray<Chunk> chunks = pages.get(slot / CHUNK / CHUNKS_PER_PAGE);
+        Chunk chunk = chunks == null ? null : chunks.get(slot / CHUNK % CHUNKS_PER_PAGE);
+        return chunk != null && chunk.ready.get(slot % CHUNK) == 1;
+    }
+
+    // Advances the published count over every written slot; any appender can move it past a slot written by
+    // another, so a stalled writer delays publication of later slots but blocks no thread
+    private void publish() {
+        int count = published.get();
+        while (count < reserved.get() && isReady(count)) {
+            published.compareAndSet(count, count + 1);
+            count = published.get();
+        }
+    }
+
+    private void widen(int feature, double value) {
+        long bits;
+        while (value < Double.longBitsToDouble(bits = minimum.get(feature))
+               && !minimum.compareAndSet(feature, bits, Double.doubleToRawLongBits(value))) {
+            Thread.onSpinWait();
+        }
+        while (value > Double.longBitsToDouble(bits = maximum.get(feature))
+               && !maximum.compareAndSet(feature, bits, Double.doubleToRawLongBits(value))) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double range(int feature) {
+        return Double.longBitsToDouble(maximum.get(feature)) - Double.longBitsToDouble(minimum.get(feature));
+    }
+
+    private boolean rebuildDue() {
+        Layout current = layout;
+        int count = published.get();
+        return count - current.indexed >= CHUNK || rescaleDue(current, count);
+    }
+
+    private boolean rescaleDue(Layout current, int count) {
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            if (FeatureScaling.drifted(range(f), current.scale[f], count)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rebuild() {
+        Layout current = layout;
+        int count = published.get();
+        if (rescaleDue(current, count)) {
+            double[] scale = current.scale.clone();
+            double[] inverse = current.inverse.clone();
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                double range = range(f);
+                if (FeatureScaling.drifted(range, scale[f], count)) {
+                    scale[f] = range;
+                    inverse[f] = 1.0 / range;
+                }
+            }
+            Segment all = segment(inverse, new Segment[0], 0, count);
+            layout = new Layout(current.generation + 1, scale, new Segment[]{all});
+            return;
+        }
+        if (count - current.indexed < CHUNK) {
+            return;
+        }
+
+        // The tail becomes a segment that absorbs every trailing segment not larger than itself
+        Segment[] segments = current.segments;
+        int kept = segments.length;
+        int start = current.indexed;
+        while (kept > 0 && segments[kept - 1].size <= count - start) {
+            kept--;
+            start = segments[kept].start;
+        }
+        Segment[] next = Arrays.copyOf(segments, kept + 1);
+        next[kept] = segment(current.inverse, Arrays.copyOfRange(segments, kept, segments.length), start, count);
+        layout = new Layout(current.generation, current.scale, next);
+    }
+
+    // Builds and indexes one segment over points start..count-1, the first of which are the given segments;
+    // the rest are scaled from the chunks
+    private Segment segment(double[] inverse, Segment[] merged, int start, int count) {
+        int size = count - start;
+        double[][] features = new double[MaintenanceHistory.FEATURES][size];
+        byte[] labels = new byte[size];
+        int filled = 0;
+        for (Segment segment : merged) {
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                System.arraycopy(segment.features[f], 0, features[f], filled, segment.size);
+            }
+            System.arraycopy(segment.labels, 0, labels, filled, segment.size);
+            filled += segment.size;
+        }
+        for (int i = start + filled; i < count; i++) {
+            Chunk chunk = chunk(i / CHUNK);
+            int j = i % CHUNK;
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                features[f][i - start] = chunk.columns[f][j] * inverse[f];
+            }
+            labels[i - start] = chunk.labels[j];
+        }
+        NeighbourIndex index = indexes.get();
+        for (int i = 0; i < size; i++) {
+            index.pointAdded(features, i);
+        }
+        return new Segment(start, size, features, labels, index);
+    }
+}
\ No newline at end of file
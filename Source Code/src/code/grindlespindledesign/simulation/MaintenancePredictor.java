@@ -0,0 +1,54 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Maintenance prediction backend. Implementations are discovered with ServiceLoader from
+// META-INF/services/code.grindlespindledesign.simulation.MaintenancePredictor; they need a public no-argument
+// constructor that does little work, and must be safe to call from several threads.
+public interface MaintenancePredictor {
+    // Name that selects this backend with -Dspindle.predictor
+    String getName();
+
+    // Number of labelled points the backend currently learns from
+    long getObservationCount();
+
+    // Learns from an observed operating point; label 1 = maintenance needed, 0 = no maintenance
+    void learn(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+               double wheelWear, int label);
+
+    // Counters of the backend's prediction cache; backends without one report it disabled
+    default PredictionCacheStatistics getCacheStatistics() {
+        return PredictionCacheStatistics.DISABLED;
+    }
+
+    // 1 = maintenance needed, 0 = no maintenance
+    int predict(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                double wheelWear);
+
+    // Predicts every row, given in the order predict takes its arguments. Backends that have no neighbours
+    // report none in the result.
+    default PredictionBatch predictBatch(double[][] queries, ForkJoinPool pool) {
+        int[] labels = new int[queries.length];
+        pool.submit(() -> IntStream.range(0, queries.length).parallel().forEach(q -> {
+            double[] query = queries[q];
+            labels[q] = predict(query[0], query[1], query[2], query[3], query[4], query[5]);
+        })).join();
+        return new PredictionBatch(0, labels, new int[queries.length], new double[0]);
+    }
+
+    // Backend named by -Dspindle.predictor (default knn); falls back to the k-NN if no provider has that name
+    static MaintenancePredictor fromSystemProperties() {
+        String name = System.getProperty("spindle.predictor", KnnMaintenancePredictor.NAME);
+        for (MaintenancePredictor predictor : ServiceLoader.load(MaintenancePredictor.class)) {
+            if (predictor.getName().equals(name)) {
+                return predictor;
+            }
+        }
+        if (!name.equals(KnnMaintenancePredictor.NAME)) {
+            System.err.println("No maintenance predictor named " + name + ", using " + KnnMaintenancePredictor.NAME);
+        }
+        return new KnnMaintenancePredictor();
+    }
+}
\ No newline at end of file
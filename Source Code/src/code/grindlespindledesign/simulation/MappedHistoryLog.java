@@ -0,0 +1,228 @@
+package code.grindlespindledesign.simulation;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Append-only maintenance history persisted in a memory-mapped file. The file is a 64-byte header followed by
+// fixed-width little-endian records, mapped in segments; queries scan the mapped records directly, so opening
+// an existing log costs only the mapping and a check of its tail.
+//
+// Header: magic, schema version, record width, feature count, committed record count.
+// Record: six features as doubles, the label as an int, and a CRC32C of the preceding 52 bytes.
+//
+// A record is written before the committed count is advanced. After a crash the count can lag behind the
+// records or, if the pages reached the disk out of order, claim a torn record; open() walks back over
+// records whose checksum fails and forward over intact records beyond the count.
+//
+// The log holds an exclusive lock on the file while it is open, so a second JVM pointed at the same file
+// fails to open it instead of interleaving its appends.
+final class MappedHistoryLog implements HistoryStore, AutoCloseable {
+    static final int MAGIC = 0x5350484C;
+    static final int SCHEMA_VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 56;
+    private static final int LABEL_OFFSET = 48;
+    private static final int CHECKSUM_OFFSET = 52;
+    private static final int COUNT_OFFSET = 16;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_RECORDS - 1;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final CRC32C checksum = new CRC32C();
+    private int size;
+    private boolean closed;
+
+    private MappedHistoryLog(FileChannel channel, FileLock lock) throws IOException {
+        this.channel = channel;
+        this.lock = lock;
+        this.header = map(0, HEADER_BYTES);
+    }
+
+    static MappedHistoryLog open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        try {
+            FileLock lock = lock(channel, path);
+            long fileSize = channel.size();
+            // Mapping the header would pad a shorter file, so reject it before touching its contents
+            if (fileSize > 0 && fileSize < HEADER_BYTES) {
+                throw new IOException(path + " is not a maintenance history log");
+            }
+            boolean created = fileSize == 0;
+            MappedHistoryLog log = new MappedHistoryLog(channel, lock);
+            if (created) {
+                log.writeHeader();
+            } else {
+                log.checkHeader(path);
+            }
+            log.recover();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static FileLock lock(FileChannel channel, Path path) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IOException(path + " is in use by another process");
+        }
+        return lock;
+    }
+
+    private void writeHeader() {
+        header.putInt(0, MAGIC);
+        header.putInt(4, SCHEMA_VERSION);
+        header.putInt(8, RECORD_BYTES);
+        header.putInt(12, MaintenanceHistory.FEATURES);
+        header.putLong(COUNT_OFFSET, 0L);
+    }
+
+    private void checkHeader(Path path) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a maintenance history log");
+        }
+        if (header.getInt(4) != SCHEMA_VERSION) {
+            throw new IOException("Unsupported history log schema version " + header.getInt(4) + " in " + path);
+        }
+        if (header.getInt(8) != RECORD_BYTES || header.getInt(12) != MaintenanceHistory.FEATURES) {
+            throw new IOException("Unexpected record layout in " + path);
+        }
+    }
+
+    private void recover() throws IOException {
+        long fileRecords = Math.max(0, (channel.size() - HEADER_BYTES) / RECORD_BYTES);
+        int committed = (int) Math.min(Math.min(header.getLong(COUNT_OFFSET), fileRecords), Integer.MAX_VALUE);
+        ensureMapped(committed);
+        while (committed > 0 && !isIntact(committed - 1)) {
+            committed--;
+        }
+        while (committed < fileRecords && committed < Integer.MAX_VALUE) {
+            ensureMapped(committed + 1);
+            if (!isIntact(committed)) {
+                break;
+            }
+            committed++;
+        }
+        size = committed;
+        header.putLong(COUNT_OFFSET, committed);
+    }
+
+    private boolean isIntact(int index) {
+        MappedByteBuffer segment = segments.get(index >>> SEGMENT_SHIFT);
+        int position = (index & SEGMENT_MASK) * RECORD_BYTES;
+        return segment.getInt(position + CHECKSUM_OFFSET) == checksum(segment, position);
+    }
+
+    private int checksum(MappedByteBuffer segment, int position) {
+        checksum.reset();
+        checksum.update(segment.slice(position, CHECKSUM_OFFSET));
+        return (int) checksum.getValue();
+    }
+
+    // Maps segments until the first count records are addressable; mapping past the end grows the file
+    private void ensureMapped(int count) throws IOException {
+        while ((long) segments.size() * SEGMENT_RECORDS < count) {
+            long position = HEADER_BYTES + (long) segments.size() * SEGMENT_RECORDS * RECORD_BYTES;
+            segments.add(map(position, (long) SEGMENT_RECORDS * RECORD_BYTES));
+        }
+    }
+
+    private MappedByteBuffer map(long position, long bytes) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void append(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                       double wheelWear, int label) {
+        if (closed) {
+            throw new IllegalStateException("The history log is closed");
+        }
+        try {
+            ensureMapped(size + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow the history log: " + e.getMessage(), e);
+        }
+        MappedByteBuffer segment = segments.get(size >>> SEGMENT_SHIFT);
+        int position = (size & SEGMENT_MASK) * RECORD_BYTES;
+        segment.putDouble(position, vibration);
+        segment.putDouble(position + 8, temperature);
+        segment.putDouble(position + 16, load);
+        segment.putDouble(position + 24, bearingLife);
+        segment.putDouble(position + 32, spindleLife);
+        segment.putDouble(position + 40, wheelWear);
+        segment.putInt(position + LABEL_OFFSET, label);
+        segment.putInt(position + CHECKSUM_OFFSET, checksum(segment, position));
+        size++;
+        header.putLong(COUNT_OFFSET, size);
+    }
+
+    @Override
+    public double feature(int feature, int index) {
+        return segments.get(index >>> SEGMENT_SHIFT).getDouble((index & SEGMENT_MASK) * RECORD_BYTES + feature * 8);
+    }
+
+    @Override
+    public int label(int index) {
+        return segments.get(index >>> SEGMENT_SHIFT).getInt((index & SEGMENT_MASK) * RECORD_BYTES + LABEL_OFFSET);
+    }
+
+    @Override
+    public void loadBlock(int start, int count, MaintenanceHistory.ScanBlock block) {
+        MappedByteBuffer segment = segments.get(start >>> SEGMENT_SHIFT);
+        int position = (start & SEGMENT_MASK) * RECORD_BYTES;
+        for (int j = 0; j < count; j++, position += RECORD_BYTES) {
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                block.columns[f][j] = segment.getDouble(position + f * 8);
+            }
+            block.labels[j] = (byte) segment.getInt(position + LABEL_OFFSET);
+        }
+    }
+
+    // Writes the mapped pages to the storage device; without this they still survive a JVM crash through
+    // the page cache, but not an operating-system crash
+    void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    // Flushes the mappings and releases the file lock; appends after this fail
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        force();
+        lock.release();
+        channel.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+
+// Distribution of one metric over Monte Carlo replications
+public record MetricSummary(int count, double mean, double stdDev, double p5, double p50, double p95) {
+
+    // Summarizes the first count values; the array is sorted in place
+    static MetricSummary of(double[] values, int count) {
+        MetricSummary moments = moments(values, count);
+        Arrays.sort(values, 0, count);
+        return new MetricSummary(count, moments.mean, moments.stdDev,
+            percentile(values, count, 0.05), percentile(values, count, 0.50), percentile(values, count, 0.95));
+    }
+
+    // Mean and standard deviation of the first count values (Welford); the array is left as it is and the
+    // percentiles are NaN
+    static MetricSummary moments(double[] values, int count) {
+        double mean = 0.0;
+        double m2 = 0.0;
+        for (int i = 0; i < count; i++) {
+            double delta = values[i] - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (values[i] - mean);
+        }
+        double stdDev = count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+        return new MetricSummary(count, mean, stdDev, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    // Half-width of the normal-approximation confidence interval of the mean
+    public double confidenceHalfWidth(double z) {
+        return count == 0 ? Double.POSITIVE_INFINITY : z * stdDev / Math.sqrt(count);
+    }
+
+    private static double percentile(double[] sorted, int count, double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double position = fraction * (count - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(count - 1, lower + 1);
+        double weight = position - lower;
+        return sorted[lower] * (1.0 - weight) + sorted[upper] * weight;
+    }
+}
\ No newline at end of file
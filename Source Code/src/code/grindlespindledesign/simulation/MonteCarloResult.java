@@ -0,0 +1,7 @@
+package code.grindlespindledesign.simulation;
+
+// Monte Carlo statistics of one scenario; converged is false if the replication cap was reached first
+public record MonteCarloResult(String scenarioName, int replications, boolean converged,
+                               MetricSummary bearingLife, MetricSummary spindleLife,
+                               MetricSummary minerDamage, MetricSummary wheelWear) {
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+// Repeats each scenario with independent load spikes and reports the spread of the fatigue and wear metrics.
+// Replications run in parallel batches and stop early once every metric's 95% confidence interval
+// is narrower than the requested relative tolerance.
+public class MonteCarloSimulation {
+    private static final double Z_95 = 1.959964;
+    private static final int BATCH_SIZE = 64;
+
+    private final SpindleSimulation simulation;
+    private final ForkJoinPool pool;
+
+    // Deterministic part of a scenario shared by all replications; a replication only adds spike deltas
+    private static final class ReplicationTemplate {
+        SpindleConfiguration adjustedParams;
+        double duration;
+        int steps;
+        double baseSum;
+        double baseSumSquares;
+        double baseDamage;
+        double basePeak;
+        double[] spikeDelta;
+        double[] spikeSquaresDelta;
+        double[] spikeDamageDelta;
+        double[] spikedLoad;
+        boolean[] spikeCounted;
+    }
+
+    public MonteCarloSimulation(SpindleSimulation simulation) {
+        this(simulation, ForkJoinPool.commonPool());
+    }
+
+    public MonteCarloSimulation(SpindleSimulation simulation, ForkJoinPool pool) {
+        this.simulation = simulation;
+        this.pool = pool;
+    }
+
+    public List<MonteCarloResult> run(SpindleParameters params, List<SpindleSimulation.SimulationScenario> scenarios,
+                                      int maxReplications, double tolerance, long seed) {
+        checkLimits(maxReplications, tolerance);
+        SpindleConfiguration configuration = params.build();
+        SplittableGenerator generator = SpindleSimulation.newGenerator(seed);
+        List<MonteCarloResult> results = new ArrayList<>(scenarios.size());
+        for (SpindleSimulation.SimulationScenario scenario : scenarios) {
+            results.add(run(configuration, scenario, maxReplications, tolerance, generator.split()));
+        }
+        return results;
+    }
+
+    public MonteCarloResult run(SpindleParameters params, SpindleSimulation.SimulationScenario scenario,
+                                int maxReplications, double tolerance, long seed) {
+        checkLimits(maxReplications, tolerance);
+        return run(params.build(), scenario, maxReplications, tolerance, SpindleSimulation.newGenerator(seed));
+    }
+
+    private static void checkLimits(int maxReplications, double tolerance) {
+        if (maxReplications < 1) {
+            throw new IllegalArgumentException("maxReplications must be at least 1: " + maxReplications);
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+    }
+
+    private MonteCarloResult run(SpindleConfiguration params, SpindleSimulation.SimulationScenario scenario,
+                                 int maxReplications, double tolerance, SplittableGenerator generator) {
+        ReplicationTemplate template = prepare(params, scenario);
+        double[] bearingLife = new double[maxReplications];
+        double[] spindleLife = new double[maxReplications];
+        double[] minerDamage = new double[maxReplications];
+        double[] wheelWear = new double[maxReplications];
+
+        int completed = 0;
+        boolean converged = false;
+        while (completed < maxReplications && !converged) {
+            int batchEnd = Math.min(maxReplications, completed + BATCH_SIZE);
+            // Streams are split in replication order so results do not depend on scheduling
+            SplittableGenerator[] generators = new SplittableGenerator[batchEnd - completed];
+            for (int i = 0; i < generators.length; i++) {
+                generators[i] = generator.split();
+            }
+            int batchStart = completed;
+            pool.submit(() -> IntStream.range(batchStart, batchEnd).parallel().forEach(replication -> {
+                ProfileMetrics metrics = replicate(template, generators[replication - batchStart]);
+                bearingLife[replication] = simulation.calculateBearingL10Life(template.adjustedParams, metrics);
+                spindleLife[replication] = simulation.calculateSpindleFatigueLife(template.adjustedParams, metrics);
+                minerDamage[replication] = metrics.minerDamage();
+                wheelWear[replication] = simulation.calculateWheelWear(template.adjustedParams, metrics, template.duration);
+            })).join();
+            completed = batchEnd;
+
+            converged = completed > 1
+                && withinTolerance(bearingLife, completed, tolerance)
+                && withinTolerance(spindleLife, completed, tolerance)
+                && withinTolerance(minerDamage, completed, tolerance)
+                && withinTolerance(wheelWear, completed, tolerance);
+        }
+
+        return new MonteCarloResult(scenario.name, completed, converged,
+            MetricSummary.of(bearingLife, completed), MetricSummary.of(spindleLife, completed),
+            MetricSummary.of(minerDamage, completed), MetricSummary.of(wheelWear, completed));
+    }
+
+    private ReplicationTemplate prepare(SpindleConfiguration params, SpindleSimulation.SimulationScenario scenario) {
+        ReplicationTemplate template = new ReplicationTemplate();
+        template.adjustedParams = simulation.adjustForScenario(params, scenario);
+        template.duration = scenario.duration;
+
+        double[] envelope = simulation.generateLoadEnvelope(template.adjustedParams, scenario.duration, scenario.loadFactor);
+        double spikeThreshold = simulation.spikeThreshold(template.adjustedParams, scenario.loadFactor);
+        int steps = envelope.length;
+        template.steps = steps;
+        template.spikeDelta = new double[steps];
+        template.spikeSquaresDelta = new double[steps];
+        template.spikeDamageDelta = new double[steps];
+        template.spikedLoad = new double[steps];
+        template.spikeCounted = new boolean[steps];
+        for (int i = 0; i < steps; i++) {
+            double load = envelope[i];
+            double spiked = load * SpindleSimulation.SPIKE_FACTOR;
+            double damage = SpindleSimulation.cycleDamage(load);
+            template.baseSum += load;
+            template.baseSumSquares += load * load;
+            template.baseDamage += damage;
+            template.basePeak = Math.max(template.basePeak, load);
+            template.spikeDelta[i] = spiked - load;
+            template.spikeSquaresDelta[i] = spiked * spiked - load * load;
+            template.spikeDamageDelta[i] = SpindleSimulation.cycleDamage(spiked) - damage;
+            template.spikedLoad[i] = spiked;
+            template.spikeCounted[i] = spiked > spikeThreshold;
+        }
+        return template;
+    }
+
+    // Draws the spikes exactly as SpindleSimulation.generateLoadProfile does and accumulates their effect
+    private static ProfileMetrics replicate(ReplicationTemplate template, SplittableGenerator generator) {
+        int steps = template.steps;
+        if (steps == 0) {
+            return ProfileMetrics.empty();
+        }
+        double sum = template.baseSum;
+        double sumSquares = template.baseSumSquares;
+        double damage = template.baseDamage;
+        double peak = template.basePeak;
+        int spikes = 0;
+        for (int chunkStart = 0; chunkStart < steps; chunkStart += SpindleSimulation.RANDOM_CHUNK_SIZE) {
+            RandomGenerator chunkGenerator = generator.split();
+            int chunkEnd = Math.min(steps, chunkStart + SpindleSimulation.RANDOM_CHUNK_SIZE);
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                if (chunkGenerator.nextDouble() < SpindleSimulation.SPIKE_PROBABILITY) {
+                    sum += template.spikeDelta[i];
+                    sumSquares += template.spikeSquaresDelta[i];
+                    damage += template.spikeDamageDelta[i];
+                    peak = Math.max(peak, template.spikedLoad[i]);
+                    if (template.spikeCounted[i]) {
+                        spikes++;
+                    }
+                }
+            }
+        }
+        return new ProfileMetrics(steps, sum / steps, peak, damage, spikes, Math.sqrt(sumSquares / steps));
+    }
+
+    private static boolean withinTolerance(double[] values, int count, double tolerance) {
+        MetricSummary moments = MetricSummary.moments(values, count);
+        return moments.confidenceHalfWidth(Z_95) <= tolerance * Math.abs(moments.mean());
+    }
+
+    public String renderReport(List<MonteCarloResult> results) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Monte Carlo Spindle Simulation ===\n\n");
+        for (MonteCarloResult result : results) {
+            report.append(String.format("Scenario: %s (%d replications, %s)\n", result.scenarioName(),
+                result.replications(), result.converged() ? "converged" : "replication limit reached"));
+            appendMetric(report, "Bearing L10 Life (hours)", result.bearingLife(), 1.0, "%.0f");
+            appendMetric(report, "Spindle Remaining Life (%)", result.spindleLife(), 100.0, "%.2f");
+            appendMetric(report, "Miner Damage", result.minerDamage(), 1.0, "%.3e");
+            appendMetric(report, "Wheel Wear (mm)", result.wheelWear(), 1.0, "%.4f");
+            report.append("\n");
+        }
+        return report.toString();
+    }
+
+    private static void appendMetric(StringBuilder report, String label, MetricSummary summary, double scale, String format) {
+        String pattern = " - %s: mean " + format + ", std-dev " + format + ", p5 " + format + ", p50 " + format
+            + ", p95 " + format + "\n";
+        report.append(String.format(pattern, label, summary.mean() * scale, summary.stdDev() * scale,
+            summary.p5() * scale, summary.p50() * scale, summary.p95() * scale));
+    }
+}
\ No newline at end of file
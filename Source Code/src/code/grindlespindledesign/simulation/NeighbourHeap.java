@@ -0,0 +1,144 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+
+// Bounded max-heap of the k nearest points seen so far, ordered by (distance, index) so that the root is
+// the current k-th neighbour and ties resolve exactly like a stable sort of all distances
+final class NeighbourHeap {
+    private final double[] distances;
+    private final int[] indices;
+    private final byte[] labels;
+    // Query features, kept here so a search does not allocate
+    final double[] query = new double[MaintenanceHistory.FEATURES];
+    private int limit;
+    private int count;
+    // Added to every offered index, for indexes that cover a segment of the history starting there
+    private int base;
+
+    NeighbourHeap(int capacity) {
+        distances = new double[capacity];
+        indices = new int[capacity];
+        labels = new byte[capacity];
+    }
+
+    int capacity() {
+        return distances.length;
+    }
+
+    void reset(int k) {
+        limit = k;
+        count = 0;
+        base = 0;
+    }
+
+    void setBase(int base) {
+        this.base = base;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    boolean isFull() {
+        return count == limit;
+    }
+
+    // Squared distance of the k-th nearest point so far; only meaningful once the heap is full
+    double worstDistance() {
+        return distances[0];
+    }
+
+    // Evicted points are still in the index until the history compacts, so they are skipped here
+    void offer(double distance, int segmentIndex, byte label) {
+        if (label == MaintenanceHistory.EVICTED) {
+            return;
+        }
+        int index = segmentIndex + base;
+        if (count < limit) {
+            int child = count++;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (!after(distance, index, distances[parent], indices[parent])) {
+                    break;
+                }
+                move(parent, child);
+                child = parent;
+            }
+            set(child, distance, index, label);
+        } else if (limit > 0 && after(distances[0], indices[0], distance, index)) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= count) {
+                    break;
+                }
+                if (child + 1 < count && after(distances[child + 1], indices[child + 1], distances[child], indices[child])) {
+                    child++;
+                }
+                if (!after(distances[child], indices[child], distance, index)) {
+                    break;
+                }
+                move(child, parent);
+                parent = child;
+            }
+            set(parent, distance, index, label);
+        }
+    }
+
+    // Copies the positions of the points kept so far, in heap order, and returns how many there are
+    int indices(int[] out) {
+        System.arraycopy(indices, 0, out, 0, count);
+        return count;
+    }
+
+    // Writes the kept squared distances in ascending order at out[offset..] and returns how many there are
+    int sortedDistances(double[] out, int offset) {
+        System.arraycopy(distances, 0, out, offset, count);
+        Arrays.sort(out, offset, offset + count);
+        return count;
+    }
+
+    // Writes the kept squared distances and labels nearest first, in the order of a stable sort, and returns
+    // how many there are
+    int sorted(double[] outDistances, byte[] outLabels) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            int j = i;
+            while (j > 0 && after(distances[order[j - 1]], indices[order[j - 1]], distances[i], indices[i])) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            outDistances[i] = distances[order[i]];
+            outLabels[i] = labels[order[i]];
+        }
+        return count;
+    }
+
+    int positiveCount() {
+        int positives = 0;
+        for (int i = 0; i < count; i++) {
+            positives += labels[i];
+        }
+        return positives;
+    }
+
+    private static boolean after(double distance, int index, double otherDistance, int otherIndex) {
+        int order = Double.compare(distance, otherDistance);
+        return order > 0 || (order == 0 && index > otherIndex);
+    }
+
+    private void move(int from, int to) {
+        distances[to] = distances[from];
+        indices[to] = indices[from];
+        labels[to] = labels[from];
+    }
+
+    private void set(int slot, double distance, int index, byte label) {
+        distances[slot] = distance;
+        indices[slot] = index;
+        labels[slot] = label;
+    }
+}
\ No newline at end of file
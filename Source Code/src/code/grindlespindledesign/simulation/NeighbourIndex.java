@@ -0,0 +1,46 @@
+package code.grindlespindledesign.simulation;
+
+// Search structure over the maintenance history. The history owns the feature columns and the lock;
+// an index only keeps point positions and is told about every appended point. A MaintenanceKnowledgeBase
+// instead fills one index per segment before publishing it, then only searches it, from any thread at once.
+interface NeighbourIndex {
+    // Index selected with -Dspindle.knn.index=kdtree|linear|hnsw (default kdtree). The approximate hnsw index
+    // reads -Dspindle.knn.hnsw.m, -Dspindle.knn.hnsw.efConstruction and -Dspindle.knn.hnsw.ef.
+    static NeighbourIndex fromSystemProperties() {
+        String type = System.getProperty("spindle.knn.index", "kdtree");
+        switch (type) {
+            case "linear":
+                return new LinearScanIndex();
+            case "hnsw":
+                return new HnswIndex(Integer.getInteger("spindle.knn.hnsw.m", HnswIndex.DEFAULT_M),
+                                     Integer.getInteger("spindle.knn.hnsw.efConstruction", HnswIndex.DEFAULT_EF_CONSTRUCTION),
+                                     Integer.getInteger("spindle.knn.hnsw.ef", HnswIndex.DEFAULT_EF_SEARCH));
+            default:
+                return new KdTreeIndex();
+        }
+    }
+
+    // Called under the history's write lock after the point at this position was appended
+    void pointAdded(double[][] features, int index);
+
+    // Called under the history's write lock before the compacted points are added again from position 0
+    void clear();
+
+    // Called under the history's read lock; offers to the heap at least every point that belongs to the
+    // k nearest neighbours of heap.query
+    void search(double[][] features, byte[] labels, int size, NeighbourHeap heap);
+
+    // True for indexes whose searchBatch shares work between queries (a block scan). Only those are searched in
+    // tiles of queries; a tree or graph search gains nothing from it, so batches search them query by query.
+    default boolean sharesBatchWork() {
+        return false;
+    }
+
+    // Called under the history's read lock with the first count heaps each holding a query; indexes that can
+    // share work between queries override this and sharesBatchWork
+    default void searchBatch(double[][] features, byte[] labels, int size, NeighbourHeap[] heaps, int count) {
+        for (int q = 0; q < count; q++) {
+            search(features, labels, size, heaps[q]);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package code.grindlespindledesign.simulation;
+
+// The nearest points to a query, nearest first, as found by MaintenanceHistory at the given version. Only the
+// first count entries are set; there are fewer than the capacity when the history was smaller than k.
+record Neighbourhood(double[] squaredDistances, byte[] labels, int count, long version) {
+
+    int positives() {
+        int positives = 0;
+        for (int i = 0; i < count; i++) {
+            positives += labels[i];
+        }
+        return positives;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package code.grindlespindledesign.simulation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Maintenance history kept outside the Java heap: each feature is a column of direct buffers grown one chunk
+// at a time, and the labels are a bitmap. Only the chunk list lives on the heap, so 100M points (about 4.6 GB
+// of columns) need -XX:MaxDirectMemorySize rather than a larger -Xmx. Blocks are copied out of the columns so
+// queries run the same scan kernel as the on-heap linear scan.
+final class OffHeapColumnStore implements HistoryStore {
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_POINTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_POINTS - 1;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    private static final class Chunk {
+        final DoubleBuffer[] columns = new DoubleBuffer[MaintenanceHistory.FEATURES];
+        final LongBuffer labels;
+
+        Chunk() {
+            for (int f = 0; f < columns.length; f++) {
+                columns[f] = ByteBuffer.allocateDirect(CHUNK_POINTS * Double.BYTES)
+                    .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+            labels = ByteBuffer.allocateDirect(CHUNK_POINTS / Byte.SIZE).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void append(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                       double wheelWear, int label) {
+        int offset = size & CHUNK_MASK;
+        if (offset == 0) {
+            chunks.add(new Chunk());
+        }
+        Chunk chunk = chunks.get(size >>> CHUNK_SHIFT);
+        chunk.columns[0].put(offset, vibration);
+        chunk.columns[1].put(offset, temperature);
+        chunk.columns[2].put(offset, load);
+        chunk.columns[3].put(offset, bearingLife);
+        chunk.columns[4].put(offset, spindleLife);
+        chunk.columns[5].put(offset, wheelWear);
+        if (label != 0) {
+            int word = offset >>> 6;
+            chunk.labels.put(word, chunk.labels.get(word) | (1L << offset));
+        }
+        size++;
+    }
+
+    @Override
+    public double feature(int feature, int index) {
+        return chunks.get(index >>> CHUNK_SHIFT).columns[feature].get(index & CHUNK_MASK);
+    }
+
+    @Override
+    public int label(int index) {
+        return label(chunks.get(index >>> CHUNK_SHIFT), index & CHUNK_MASK);
+    }
+
+    private static int label(Chunk chunk, int offset) {
+        return (int) (chunk.labels.get(offset >>> 6) >>> offset) & 1;
+    }
+
+    @Override
+    public void loadBlock(int start, int count, MaintenanceHistory.ScanBlock block) {
+        Chunk chunk = chunks.get(start >>> CHUNK_SHIFT);
+        int offset = start & CHUNK_MASK;
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            chunk.columns[f].get(offset, block.columns[f], 0, count);
+        }
+        for (int j = 0; j < count; j++) {
+            block.labels[j] = (byte) label(chunk, offset + j);
+        }
+    }
+}
\ No newline at end of file
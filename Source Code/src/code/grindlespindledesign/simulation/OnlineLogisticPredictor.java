@@ -0,0 +1,81 @@
+package code.grindlespindledesign.simulation;
+
+// Logistic regression trained one point at a time. Features are standardised with running means and variances
+// (Welford) and every weight takes an AdaGrad step, so learning and predicting both cost O(features) no matter
+// how many points have been seen, and the model itself is a few dozen doubles.
+public final class OnlineLogisticPredictor implements MaintenancePredictor {
+    static final String NAME = "online-logistic";
+    private static final double LEARNING_RATE = 0.5;
+    private static final double EPSILON = 1e-8;
+
+    private final double[] mean = new double[MaintenanceHistory.FEATURES];
+    private final double[] sumSquares = new double[MaintenanceHistory.FEATURES];
+    // Feature weights followed by the bias
+    private final double[] weights = new double[MaintenanceHistory.FEATURES + 1];
+    private final double[] squaredGradients = new double[MaintenanceHistory.FEATURES + 1];
+    private final double[] standardised = new double[MaintenanceHistory.FEATURES];
+    private long count;
+
+    @Override
+    public String getName() { return NAME; }
+
+    @Override
+    public synchronized long getObservationCount() { return count; }
+
+    @Override
+    public synchronized void learn(double vibration, double temperature, double load, double bearingLife,
+                                   double spindleLife, double wheelWear, int label) {
+        count++;
+        updateMoments(0, vibration);
+        updateMoments(1, temperature);
+        updateMoments(2, load);
+        updateMoments(3, bearingLife);
+        updateMoments(4, spindleLife);
+        updateMoments(5, wheelWear);
+
+        double margin = margin(vibration, temperature, load, bearingLife, spindleLife, wheelWear);
+        double gradient = 1.0 / (1.0 + Math.exp(-margin)) - label;
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            step(f, gradient * standardised[f]);
+        }
+        step(MaintenanceHistory.FEATURES, gradient);
+    }
+
+    @Override
+    public synchronized int predict(double vibration, double temperature, double load, double bearingLife,
+                                    double spindleLife, double wheelWear) {
+        return margin(vibration, temperature, load, bearingLife, spindleLife, wheelWear) > 0 ? 1 : 0;
+    }
+
+    private void updateMoments(int feature, double value) {
+        double delta = value - mean[feature];
+        mean[feature] += delta / count;
+        sumSquares[feature] += delta * (value - mean[feature]);
+    }
+
+    // Log-odds of maintenance being needed; leaves the standardised features in the scratch array
+    private double margin(double vibration, double temperature, double load, double bearingLife, double spindleLife,
+                          double wheelWear) {
+        standardised[0] = standardise(0, vibration);
+        standardised[1] = standardise(1, temperature);
+        standardised[2] = standardise(2, load);
+        standardised[3] = standardise(3, bearingLife);
+        standardised[4] = standardise(4, spindleLife);
+        standardised[5] = standardise(5, wheelWear);
+        double margin = weights[MaintenanceHistory.FEATURES];
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            margin += weights[f] * standardised[f];
+        }
+        return margin;
+    }
+
+    private double standardise(int feature, double value) {
+        double variance = count > 1 ? sumSquares[feature] / (count - 1) : 0.0;
+        return variance > 0 ? (value - mean[feature]) / Math.sqrt(variance) : 0.0;
+    }
+
+    private void step(int weight, double gradient) {
+        squaredGradients[weight] += gradient * gradient;
+        weights[weight] -= LEARNING_RATE * gradient / (Math.sqrt(squaredGradients[weight]) + EPSILON);
+    }
+}
\ No newline at end of file
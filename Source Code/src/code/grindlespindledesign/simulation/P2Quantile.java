@@ -0,0 +1,94 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+
+// Streaming quantile estimate with five markers (Jain & Chlamtac P-square algorithm), O(1) memory
+final class P2Quantile {
+    private final double probability;
+    private final double[] heights = new double[5];
+    private final int[] positions = new int[5];
+    private final double[] desiredPositions = new double[5];
+    private final double[] increments;
+    private int count;
+
+    P2Quantile(double probability) {
+        this.probability = probability;
+        this.increments = new double[]{0.0, probability / 2.0, probability, (1.0 + probability) / 2.0, 1.0};
+    }
+
+    void add(double value) {
+        if (count < 5) {
+            heights[count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+                for (int i = 0; i < 5; i++) {
+                    positions[i] = i + 1;
+                }
+                desiredPositions[0] = 1.0;
+                desiredPositions[1] = 1.0 + 2.0 * probability;
+                desiredPositions[2] = 1.0 + 4.0 * probability;
+                desiredPositions[3] = 3.0 + 2.0 * probability;
+                desiredPositions[4] = 5.0;
+            }
+            return;
+        }
+        count++;
+
+        // Find the cell the value falls into, widening the outer markers if needed
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = value;
+            cell = 3;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desiredPositions[i] += increments[i];
+        }
+
+        // Move the middle markers towards their desired positions
+        for (int i = 1; i <= 3; i++) {
+            double offset = desiredPositions[i] - positions[i];
+            if ((offset >= 1.0 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1.0 && positions[i - 1] - positions[i] < -1)) {
+                int step = offset >= 0 ? 1 : -1;
+                double candidate = parabolic(i, step);
+                heights[i] = heights[i - 1] < candidate && candidate < heights[i + 1] ? candidate : linear(i, step);
+                positions[i] += step;
+            }
+        }
+    }
+
+    double value() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            double[] sorted = Arrays.copyOf(heights, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.round(probability * (count - 1))];
+        }
+        return heights[2];
+    }
+
+    private double parabolic(int i, int step) {
+        double left = positions[i] - positions[i - 1];
+        double right = positions[i + 1] - positions[i];
+        return heights[i] + step / (double) (positions[i + 1] - positions[i - 1])
+            * ((left + step) * (heights[i + 1] - heights[i]) / right
+               + (right - step) * (heights[i] - heights[i - 1]) / left);
+    }
+
+    private double linear(int i, int step) {
+        return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+    }
+}
\ No newline at end of file
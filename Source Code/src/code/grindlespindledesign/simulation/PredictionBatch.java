@@ -0,0 +1,37 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Arrays;
+
+// Maintenance predictions for a batch of operating points, with the distances to each point's nearest
+// historical neighbours
+public final class PredictionBatch {
+    private final int neighbours;
+    private final int[] labels;
+    private final int[] neighbourCounts;
+    // neighbourDistances[q * neighbours + i] is the distance from query q to its (i + 1)-th nearest neighbour
+    private final double[] neighbourDistances;
+
+    PredictionBatch(int neighbours, int[] labels, int[] neighbourCounts, double[] neighbourDistances) {
+        this.neighbours = neighbours;
+        this.labels = labels;
+        this.neighbourCounts = neighbourCounts;
+        this.neighbourDistances = neighbourDistances;
+    }
+
+    public int size() { return labels.length; }
+
+    public int getNeighbours() { return neighbours; }
+
+    // 1 = maintenance needed, 0 = no maintenance, as returned by SpindleSimulation.predictMaintenance
+    public int getLabel(int query) { return labels[query]; }
+
+    public int[] getLabels() { return labels.clone(); }
+
+    public int getNeighbourCount(int query) { return neighbourCounts[query]; }
+
+    // Distances to the query's nearest neighbours, nearest first
+    public double[] getNeighbourDistances(int query) {
+        int from = query * neighbours;
+        return Arrays.copyOfRange(neighbourDistances, from, from + neighbourCounts[query]);
+    }
+}
\ No newline at end of file
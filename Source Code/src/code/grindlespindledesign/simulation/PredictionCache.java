@@ -0,0 +1,132 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Least-recently-used cache of k-NN neighbourhoods in front of the maintenance history. Queries are keyed on
+// their features rounded to a fraction of each feature's initial scale, so nearly identical operating points
+// share one entry and get the answer of the first query in their cell. An entry remembers the neighbours it
+// was answered with and the history version; a hit brings them up to date with the points appended since,
+// which is exact and much cheaper than a search, and falls back to a search when points were evicted or
+// rescaled. The entries are spread over independently locked segments.
+final class PredictionCache {
+    static final int DEFAULT_CAPACITY = 4096;
+    // Cell width as a fraction of MaintenanceHistory.FEATURE_SCALES
+    static final double DEFAULT_RESOLUTION = 1e-3;
+    private static final int SEGMENTS = 16;
+
+    private final double[] cellWidth = new double[MaintenanceHistory.FEATURES];
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder hitNanos = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+
+    record Key(long vibration, long temperature, long load, long bearingLife, long spindleLife, long wheelWear) {}
+
+    // Query that created the entry, in raw units, and its neighbourhood
+    record Entry(double[] query, Neighbourhood neighbourhood) {}
+
+    private static final class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    PredictionCache(int capacity, double resolution) {
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            cellWidth[f] = MaintenanceHistory.FEATURE_SCALES[f] * resolution;
+        }
+        int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s] = new Segment(segmentCapacity);
+        }
+    }
+
+    // -Dspindle.predictor.cache.size (default 4096, 0 disables the cache) and
+    // -Dspindle.predictor.cache.resolution (default 0.001); returns null when disabled
+    static PredictionCache fromSystemProperties() {
+        int capacity = Integer.getInteger("spindle.predictor.cache.size", DEFAULT_CAPACITY);
+        if (capacity <= 0) {
+            return null;
+        }
+        String value = System.getProperty("spindle.predictor.cache.resolution");
+        double resolution = DEFAULT_RESOLUTION;
+        if (value != null) {
+            try {
+                resolution = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                resolution = 0.0;
+            }
+            if (!(resolution > 0.0)) {
+                System.err.println("Ignoring spindle.predictor.cache.resolution=" + value + ": not a positive number");
+                resolution = DEFAULT_RESOLUTION;
+            }
+        }
+        return new PredictionCache(capacity, resolution);
+    }
+
+    // Neighbourhood of the query, from the cache when its cell has an entry that is still current
+    Neighbourhood neighbourhood(MaintenanceHistory history, double[] query, int k) {
+        long start = System.nanoTime();
+        Key key = key(query);
+        Segment segment = segments[Math.floorMod(key.hashCode(), SEGMENTS)];
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null) {
+            Neighbourhood current = history.update(entry.neighbourhood(), entry.query());
+            if (current != null) {
+                if (current != entry.neighbourhood()) {
+                    synchronized (segment) {
+                        segment.put(key, new Entry(entry.query(), current));
+                    }
+                }
+                hits.increment();
+                hitNanos.add(System.nanoTime() - start);
+                return current;
+            }
+            invalidations.increment();
+        }
+
+        Neighbourhood found = history.neighbourhood(query, k);
+        synchronized (segment) {
+            segment.put(key, new Entry(query.clone(), found));
+        }
+        misses.increment();
+        missNanos.add(System.nanoTime() - start);
+        return found;
+    }
+
+    private Key key(double[] query) {
+        return new Key(cell(query, 0), cell(query, 1), cell(query, 2), cell(query, 3), cell(query, 4), cell(query, 5));
+    }
+
+    private long cell(double[] query, int feature) {
+        return (long) Math.floor(query[feature] / cellWidth[feature]);
+    }
+
+    PredictionCacheStatistics statistics() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new PredictionCacheStatistics(size, hits.sum(), misses.sum(), invalidations.sum(), hitNanos.sum(),
+                                             missNanos.sum());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package code.grindlespindledesign.simulation;
+
+// Counters of the maintenance prediction cache since it was created. A miss includes the lookups that found an
+// entry which was no longer current; those are also counted as invalidations.
+public final class PredictionCacheStatistics {
+    static final PredictionCacheStatistics DISABLED = new PredictionCacheStatistics(0, 0, 0, 0, 0, 0);
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+    private final long hitNanos;
+    private final long missNanos;
+
+    PredictionCacheStatistics(int size, long hits, long misses, long invalidations, long hitNanos, long missNanos) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+        this.hitNanos = hitNanos;
+        this.missNanos = missNanos;
+    }
+
+    public int getSize() { return size; }
+
+    public long getHits() { return hits; }
+
+    public long getMisses() { return misses; }
+
+    public long getInvalidations() { return invalidations; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public double getMeanHitMicros() { return hits == 0 ? 0.0 : hitNanos / 1e3 / hits; }
+
+    public double getMeanMissMicros() { return misses == 0 ? 0.0 : missNanos / 1e3 / misses; }
+
+    @Override
+    public String toString() {
+        return String.format("%d entries, %d hits, %d misses (%d invalidated), hit rate %.1f%%, "
+            + "%.2f us per hit, %.2f us per miss", size, hits, misses, invalidations, getHitRate() * 100.0,
+            getMeanHitMicros(), getMeanMissMicros());
+    }
+}
\ No newline at end of file
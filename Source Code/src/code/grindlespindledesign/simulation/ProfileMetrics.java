@@ -0,0 +1,44 @@
+package code.grindlespindledesign.simulation;
+
+// Statistics of a load profile gathered in a single pass over its samples
+public record ProfileMetrics(int count, double mean, double peak, double minerDamage, int spikeCount, double rms) {
+
+    public static ProfileMetrics of(LoadProfile loadProfile, double spikeThreshold) {
+        double[] loads = loadProfile.samples();
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        double peak = 0.0;
+        double sixthPowers = 0.0;
+        int spikes = 0;
+
+        // Loads are never negative or NaN, so a plain comparison is enough for the peak; the spike
+        // count is branch-free because spikes are random and would defeat branch prediction
+        for (double load : loads) {
+            double squared = load * load;
+            sum += load;
+            sumSquares += squared;
+            peak = load > peak ? load : peak;
+            sixthPowers += squared * squared * squared;
+            spikes += load > spikeThreshold ? 1 : 0;
+        }
+        double damage = SpindleSimulation.CYCLE_DAMAGE_COEFFICIENT * sixthPowers;
+
+        int count = loads.length;
+        if (count == 0) {
+            return empty();
+        }
+        return new ProfileMetrics(count, sum / count, peak, damage, spikes, Math.sqrt(sumSquares / count));
+    }
+
+    static ProfileMetrics empty() {
+        return new ProfileMetrics(0, Double.NaN, 0.0, 0.0, 0, 0.0);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double average(double defaultValue) {
+        return count == 0 ? defaultValue : mean;
+    }
+}
\ No newline at end of file
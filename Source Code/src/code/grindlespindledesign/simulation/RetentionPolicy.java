@@ -0,0 +1,61 @@
+package code.grindlespindledesign.simulation;
+
+// Limits on the self-growing maintenance history, enforced on every insert; zero turns a limit off.
+//  - capacity: at most this many points, kept as a uniform reservoir sample of every point offered
+//  - windowMillis: points added longer ago than this are evicted
+//  - normalQuota, maintenanceQuota: at most this many points with label 0 / 1; the oldest one is evicted
+//  - duplicateTolerance: a point this close (scaled distance) to its nearest neighbour with the same label
+//    replaces that neighbour, so repeated runs of one design do not pile up
+record RetentionPolicy(int capacity, long windowMillis, int normalQuota, int maintenanceQuota,
+                       double duplicateTolerance) {
+    static final int DEFAULT_CAPACITY = 100_000;
+
+    static RetentionPolicy unbounded() {
+        return new RetentionPolicy(0, 0L, 0, 0, 0.0);
+    }
+
+    // -Dspindle.history.capacity (default 100000), -Dspindle.history.windowSeconds,
+    // -Dspindle.history.quota.normal, -Dspindle.history.quota.maintenance, -Dspindle.history.dedupTolerance
+    static RetentionPolicy fromSystemProperties() {
+        return new RetentionPolicy(Integer.getInteger("spindle.history.capacity", DEFAULT_CAPACITY),
+                                   Long.getLong("spindle.history.windowSeconds", 0L) * 1000L,
+                                   Integer.getInteger("spindle.history.quota.normal", 0),
+                                   Integer.getInteger("spindle.history.quota.maintenance", 0),
+                                   doubleProperty("spindle.history.dedupTolerance"));
+    }
+
+    private static double doubleProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return 0.0;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring " + name + "=" + value + ": not a number");
+            return 0.0;
+        }
+    }
+
+    RetentionPolicy withCapacity(int capacity) {
+        return new RetentionPolicy(capacity, windowMillis, normalQuota, maintenanceQuota, duplicateTolerance);
+    }
+
+    RetentionPolicy withWindowMillis(long windowMillis) {
+        return new RetentionPolicy(capacity, windowMillis, normalQuota, maintenanceQuota, duplicateTolerance);
+    }
+
+    RetentionPolicy withLabelQuotas(int normalQuota, int maintenanceQuota) {
+        return new RetentionPolicy(capacity, windowMillis, normalQuota, maintenanceQuota, duplicateTolerance);
+    }
+
+    RetentionPolicy withDuplicateTolerance(double duplicateTolerance) {
+        return new RetentionPolicy(capacity, windowMillis, normalQuota, maintenanceQuota, duplicateTolerance);
+    }
+
+    // Largest number of points allowed with this label
+    int quota(int label) {
+        int quota = label == 0 ? normalQuota : maintenanceQuota;
+        return quota > 0 ? quota : Integer.MAX_VALUE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package code.grindlespindledesign.simulation;
+
+// Constant-memory statistics of a value stream: Welford mean/variance, min/max and P-square median and p95
+public final class RunningStatistics {
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private final P2Quantile median = new P2Quantile(0.50);
+    private final P2Quantile p95 = new P2Quantile(0.95);
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        median.add(value);
+        p95.add(value);
+    }
+
+    public long getCount() { return count; }
+
+    public double getMean() { return count == 0 ? Double.NaN : mean; }
+
+    public double getVariance() { return count > 1 ? m2 / (count - 1) : 0.0; }
+
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+
+    public double getMin() { return min; }
+
+    public double getMax() { return max; }
+
+    public double getMedian() { return median.value(); }
+
+    public double getP95() { return p95.value(); }
+
+    public double average(double defaultValue) {
+        return count == 0 ? defaultValue : mean;
+    }
+
+    public double max(double defaultValue) {
+        return count == 0 ? defaultValue : max;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package code.grindlespindledesign.simulation;
+
+// Numbers produced by one simulation scenario, computed once and shared by every report section
+public final class ScenarioResult {
+    // getMaintenanceNeeded() of a stage that ran without the maintenance prediction step, as in a DesignSweep
+    public static final int NOT_PREDICTED = -1;
+
+    private final String scenarioName;
+    private final double duration;
+    private final SpindleConfiguration adjustedParams;
+    private final LoadProfile loadProfile;
+    private final ProfileMetrics metrics;
+    private final double requiredPower;
+    private final double temperatureRise;
+    private final double thermalExpansion;
+    private final double vibration;
+    private final double resonanceFrequency;
+    private final double bearingLifeHours;
+    private final double spindleLife;
+    private final double wheelWear;
+    private final double wearVibration;
+    private final double averageLoad;
+    private int maintenanceNeeded = NOT_PREDICTED;
+
+    ScenarioResult(String scenarioName, double duration, SpindleConfiguration adjustedParams, LoadProfile loadProfile,
+                   ProfileMetrics metrics, double requiredPower, double temperatureRise, double thermalExpansion,
+                   double vibration, double resonanceFrequency, double bearingLifeHours, double spindleLife,
+                   double wheelWear, double wearVibration, double averageLoad) {
+        this.scenarioName = scenarioName;
+        this.duration = duration;
+        this.adjustedParams = adjustedParams;
+        this.loadProfile = loadProfile;
+        this.metrics = metrics;
+        this.requiredPower = requiredPower;
+        this.temperatureRise = temperatureRise;
+        this.thermalExpansion = thermalExpansion;
+        this.vibration = vibration;
+        this.resonanceFrequency = resonanceFrequency;
+        this.bearingLifeHours = bearingLifeHours;
+        this.spindleLife = spindleLife;
+        this.wheelWear = wheelWear;
+        this.wearVibration = wearVibration;
+        this.averageLoad = averageLoad;
+    }
+
+    public String getScenarioName() { return scenarioName; }
+
+    public double getDuration() { return duration; }
+
+    public SpindleConfiguration getAdjustedParams() { return adjustedParams; }
+
+    public LoadProfile getLoadProfile() { return loadProfile; }
+
+    public ProfileMetrics getMetrics() { return metrics; }
+
+    public double getRequiredPower() { return requiredPower; }
+
+    public double getTemperatureRise() { return temperatureRise; }
+
+    public double getThermalExpansion() { return thermalExpansion; }
+
+    public double getVibration() { return vibration; }
+
+    public double getResonanceFrequency() { return resonanceFrequency; }
+
+    public double getBearingLifeHours() { return bearingLifeHours; }
+
+    public double getSpindleLife() { return spindleLife; }
+
+    public double getWheelWear() { return wheelWear; }
+
+    public double getWearVibration() { return wearVibration; }
+
+    public double getTotalVibration() { return vibration + wearVibration; }
+
+    public double getAverageLoad() { return averageLoad; }
+
+    public double getOperatingTemperature() { return temperatureRise + 20.0; }
+
+    // Prediction of the maintenance model: 1 = maintenance needed, 0 = no maintenance, or NOT_PREDICTED
+    public int getMaintenanceNeeded() { return maintenanceNeeded; }
+
+    void setMaintenanceNeeded(int maintenanceNeeded) { this.maintenanceNeeded = maintenanceNeeded; }
+
+    // Label recorded in the maintenance history: 1 = maintenance needed, 0 = no maintenance
+    public int getMaintenanceLabel() {
+        return SpindleSimulation.maintenanceLabel(getTotalVibration(), bearingLifeHours, spindleLife, wheelWear,
+                                                  adjustedParams.wheelDiameter());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,940 @@
+package code.grindlespindledesign.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+// Micro-benchmarks for the simulation kernels; run with the benchmark names as arguments (none = all)
+public class SimulationBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static double sink;
+
+    public static void main(String[] args) {
+        boolean all = args.length == 0;
+        if (all || contains(args, "profile-metrics")) {
+            benchmarkProfileMetrics();
+        }
+        if (all || contains(args, "scenarios")) {
+            benchmarkParallelScenarios();
+        }
+        if (all || contains(args, "sweep")) {
+            benchmarkDesignSweep();
+        }
+        if (all || contains(args, "streaming")) {
+            benchmarkStreamingTimeBased();
+        }
+        if (all || contains(args, "fatigue")) {
+            benchmarkFatigueKernel();
+        }
+        if (all || contains(args, "load-profile")) {
+            benchmarkLoadProfileGeneration();
+        }
+        if (all || contains(args, "batch")) {
+            benchmarkBatchKernels();
+        }
+        if (all || contains(args, "knn")) {
+            benchmarkNearestNeighbours();
+        }
+        if (all || contains(args, "ann")) {
+            benchmarkApproximateNeighbours();
+        }
+        if (all || contains(args, "offheap")) {
+            benchmarkOffHeapHistory();
+        }
+        if (all || contains(args, "history-log")) {
+            benchmarkHistoryLog();
+        }
+        if (all || contains(args, "batch-predict")) {
+            benchmarkBatchPrediction();
+        }
+        if (all || contains(args, "retention")) {
+            benchmarkRetention();
+        }
+        if (all || contains(args, "predictors")) {
+            benchmarkPredictors();
+        }
+        if (all || contains(args, "scaling")) {
+            benchmarkFeatureScaling();
+        }
+        if (all || contains(args, "knowledge-base")) {
+            benchmarkKnowledgeBase();
+        }
+        if (all || contains(args, "prediction-cache")) {
+            benchmarkPredictionCache();
+        }
+        System.out.println("sink=" + sink);
+    }
+
+    private static void benchmarkProfileMetrics() {
+        SpindleSimulation simulation = new SpindleSimulation();
+        SpindleParameters params = defaultParameters();
+        LoadProfile profile = simulation.generateLoadProfile(params, 100_000.0, 1.0);
+        double duration = profile.getDuration();
+
+        System.out.printf("=== Profile metrics (%d samples) ===%n", profile.size());
+        double separate = measure("separate passes", () ->
+            simulation.calculateBearingL10Life(params, profile)
+                + simulation.calculateSpindleFatigueLife(params, profile)
+                + simulation.calculateWheelWear(params, profile, duration)
+                + profile.average(0.0));
+        double fused = measure("fused pass", () -> {
+            ProfileMetrics metrics = simulation.analyzeLoadProfile(params, profile, 1.0);
+            return simulation.calculateBearingL10Life(params, metrics)
+                + simulation.calculateSpindleFatigueLife(params, metrics)
+                + simulation.calculateWheelWear(params, metrics, duration)
+                + metrics.average(0.0);
+        });
+        System.out.printf("Speedup: %.2fx%n%n", separate / fused);
+    }
+
+    private static void benchmarkParallelScenarios() {
+        SpindleParameters params = defaultParameters();
+        List<SpindleSimulation.SimulationScenario> scenarios = new ArrayList<>();
+        int scenarioCount = Runtime.getRuntime().availableProcessors() * 4;
+        for (int i = 0; i < scenarioCount; i++) {
+            double factor = 0.5 + 0.5 * i / scenarioCount;
+            scenarios.add(new SpindleSimulation.SimulationScenario("Scenario " + i, factor, 2.0 - factor, 2_000.0));
+        }
+
+        System.out.printf("=== Scenario fan-out (%d scenarios, %d cores) ===%n",
+            scenarioCount, Runtime.getRuntime().availableProcessors());
+        SpindleSimulation sequential = new SpindleSimulation(Runnable::run);
+        SpindleSimulation parallel = new SpindleSimulation();
+        double sequentialMillis = measure("sequential", () -> sequential.simulate(params, scenarios).getScenarioResults().size());
+        double parallelMillis = measure("parallel", () -> parallel.simulate(params, scenarios).getScenarioResults().size());
+        System.out.printf("Speedup: %.2fx%n%n", sequentialMillis / parallelMillis);
+    }
+
+    private static void benchmarkDesignSweep() {
+        DesignSweep sweep = new DesignSweep(new SpindleSimulation(), defaultParameters());
+        sweep.setPowerRatings(2.0, 5.0, 10.0, 20.0, 40.0);
+        sweep.setMaxSpeeds(3000, 6000, 10000, 15000, 20000, 25000);
+        sweep.setWheelDiameters(100, 200, 300, 400, 500);
+        sweep.setBearingPreloads(200, 500, 800, 1200);
+        sweep.setBearingTypes(BearingType.ANGULAR_CONTACT, BearingType.HYBRID_CERAMIC);
+        sweep.setCoolingTypes(CoolingType.LIQUID, CoolingType.AIR);
+        sweep.setSeed(1L);
+
+        LongAdder maintenanceNeeded = new LongAdder();
+        DesignSink counter = result -> maintenanceNeeded.add(result.result().getMaintenanceLabel());
+        System.out.printf("=== Design sweep (%d grid designs) ===%n", sweep.getGridSize());
+        System.out.println("Warm-up: " + sweep.runGrid(counter));
+        System.out.println("Grid:    " + sweep.runGrid(counter));
+        System.out.println("LHS:     " + sweep.runLatinHypercube(20_000, counter));
+        System.out.println();
+        sink += maintenanceNeeded.sum();
+    }
+
+    private static void benchmarkStreamingTimeBased() {
+        SpindleSimulation simulation = new SpindleSimulation();
+        SpindleParameters params = defaultParameters();
+        double shift = 8 * 3600.0;
+        long[] snapshots = new long[1];
+
+        System.out.println("=== Streaming time-based simulation (8 h shift, 0.1 s steps) ===");
+        measure("streaming", () -> simulation.simulateTimeBasedStreaming(params, shift, 1L, 60.0,
+            snapshot -> snapshots[0]++).bearingLifeHours());
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        TimeBasedSummary summary = simulation.simulateTimeBasedStreaming(params, 3 * shift, 1L, 60.0, null);
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("24 h run: %d steps, p95 vibration %.3f mm/s, heap delta %d KB%n%n",
+            summary.steps(), summary.vibration().getP95(), Math.max(0, after - before) / 1024);
+        sink += snapshots[0];
+    }
+
+    private static void benchmarkFatigueKernel() {
+        SpindleSimulation simulation = new SpindleSimulation();
+        SpindleParameters params = defaultParameters();
+        params.setMaxSpeed(25000);
+        params.setWheelDiameter(600);
+        LoadProfile profile = simulation.generateLoadProfile(params, 100_000.0, 1.0, 1L);
+        double[] loads = profile.toArray();
+
+        System.out.printf("=== Miner damage kernel (%d samples) ===%n", loads.length);
+        double reference = referenceMinerDamage(loads);
+        double closedForm = SpindleSimulation.minerDamage(loads);
+        System.out.printf("Relative error vs log10/pow form: %.3e%n", Math.abs(closedForm - reference) / reference);
+        double legacy = measure("log10/pow per sample", () -> referenceMinerDamage(loads));
+        double kernel = measure("closed-form power law", () -> SpindleSimulation.minerDamage(loads));
+        System.out.printf("Speedup: %.1fx%n%n", legacy / kernel);
+    }
+
+    private static void benchmarkLoadProfileGeneration() {
+        SpindleSimulation simulation = new SpindleSimulation();
+        SpindleParameters params = defaultParameters();
+        double duration = 100_000.0;
+        SpindleConfiguration configuration = params.build();
+        double[] template = simulation.generateLoadEnvelope(configuration, duration, 1.0);
+
+        System.out.printf("=== Load profile generation (%d samples) ===%n", template.length);
+        double copy = measure("array copy", () -> template.clone()[template.length - 1]);
+        measure("sinusoid per sample", () -> {
+            double[] loads = new double[template.length];
+            for (int i = 0; i < loads.length; i++) {
+                loads[i] = Math.max(0, 1000.0 * (1.0 + Math.sin(2 * Math.PI * i * 0.1 / 2.0) * 0.3));
+            }
+            return loads[loads.length - 1];
+        });
+        double envelope = measure("table-driven envelope", () ->
+            simulation.generateLoadEnvelope(configuration, duration, 1.0)[template.length - 1]);
+        double profile = measure("full profile with spikes", () ->
+            simulation.generateLoadProfile(params, duration, 1.0, 1L).last());
+        System.out.printf("Envelope / copy: %.2fx, spike sampling: %.3f ms%n%n", envelope / copy, profile - envelope);
+    }
+
+    private static void benchmarkBatchKernels() {
+        SpindleSimulation simulation = new SpindleSimulation();
+        int designCount = 100_000;
+        RandomGenerator random = SpindleSimulation.newGenerator(1L);
+        SpindleParameters[] parameters = new SpindleParameters[designCount];
+        SpindleConfiguration[] configurations = new SpindleConfiguration[designCount];
+        SpindleBatch batch = new SpindleBatch(designCount);
+        for (int i = 0; i < designCount; i++) {
+            SpindleParameters params = defaultParameters();
+            params.setMaxSpeed(1000 + random.nextInt(29_000));
+            params.setWheelDiameter(50 + random.nextDouble() * 950);
+            params.setBearingPreload(100 + random.nextDouble() * 1900);
+            params.setAlignmentTolerance(0.0001 + random.nextDouble() * 0.0099);
+            params.setBearingType(random.nextBoolean() ? "Angular Contact" : "Hybrid Ceramic");
+            params.setCoolingType(random.nextBoolean() ? "Liquid" : "Air");
+            params.setToolInterface(random.nextBoolean() ? "HSK" : "Precision Collet");
+            parameters[i] = params;
+            configurations[i] = params.build();
+            batch.set(i, configurations[i]);
+        }
+        double[] power = new double[designCount];
+        double[] vibration = new double[designCount];
+        double[] temperature = new double[designCount];
+        double[] resonance = new double[designCount];
+
+        System.out.printf("=== Batch kernels (%d designs) ===%n", designCount);
+        // The kernels are single long loops, so give C2 time to compile them before the measured rounds
+        for (int i = 0; i < 50; i++) {
+            batch.requiredPower(power);
+            batch.vibration(vibration);
+            batch.temperatureRise(temperature);
+            batch.resonanceFrequency(resonance);
+        }
+        double beans = measure("SpindleParameters objects", () -> {
+            double total = 0.0;
+            for (SpindleParameters params : parameters) {
+                total += simulation.calculateRequiredPower(params.getWheelDiameter(), params.getMaxSpeed())
+                    + simulation.estimateVibration(params) + simulation.estimateTemperatureRise(params)
+                    + simulation.calculateResonanceFrequency(params.build());
+            }
+            return total;
+        });
+        double records = measure("SpindleConfiguration objects", () -> {
+            double total = 0.0;
+            for (SpindleConfiguration params : configurations) {
+                total += simulation.calculateRequiredPower(params.wheelDiameter(), params.maxSpeed())
+                    + simulation.estimateVibration(params) + simulation.estimateTemperatureRise(params)
+                    + simulation.calculateResonanceFrequency(params);
+            }
+            return total;
+        });
+        double columns = measure("SpindleBatch columns", () -> {
+            batch.requiredPower(power);
+            batch.vibration(vibration);
+            batch.temperatureRise(temperature);
+            batch.resonanceFrequency(resonance);
+            return power[designCount - 1] + vibration[designCount - 1] + temperature[designCount - 1]
+                + resonance[designCount - 1];
+        });
+
+        int mismatches = 0;
+        for (int i = 0; i < designCount; i++) {
+            SpindleConfiguration params = configurations[i];
+            if (power[i] != simulation.calculateRequiredPower(params.wheelDiameter(), params.maxSpeed())
+                || vibration[i] != simulation.estimateVibration(params)
+                || temperature[i] != simulation.estimateTemperatureRise(params)
+                || resonance[i] != simulation.calculateResonanceFrequency(params)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("Speedup: %.1fx vs parameter beans, %.1fx vs records, %d mismatching designs%n%n",
+            beans / columns, records / columns, mismatches);
+    }
+
+    private static void benchmarkNearestNeighbours() {
+        double[][] queries = randomHistoryPoints(100, 2L);
+
+        System.out.println("=== k-NN maintenance prediction (k = 3) ===");
+        double[][] points = randomHistoryPoints(100_000, 1L);
+        MaintenanceHistory linear = historyOf(points, new LinearScanIndex());
+        MaintenanceHistory kdTree = historyOf(points, new KdTreeIndex());
+        int mismatches = 0;
+        for (double[] query : queries) {
+            int expected = referencePositiveNeighbours(points, query, 3, linear);
+            if (countPositiveNeighbours(linear, query) != expected || countPositiveNeighbours(kdTree, query) != expected) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%d queries against a full sort: %d mismatches%n", queries.length, mismatches);
+        double sorted = measure("full sort, 100k points", () -> referencePositiveNeighbours(points, queries[0], 3, linear));
+        double heap = measure("bounded heap, 100k points", () -> countPositiveNeighbours(linear, queries[0]));
+        System.out.printf("Speedup: %.1fx%n%n", sorted / heap);
+
+        System.out.printf("%-12s %14s %14s %10s%n", "history", "linear ms/q", "kd-tree ms/q", "speedup");
+        for (int size = 10_000; size <= 10_000_000; size *= 10) {
+            // A scan of millions of points takes long enough that a few queries give a stable figure
+            double[][] linearQueries = size >= 1_000_000 ? Arrays.copyOf(queries, 5) : queries;
+            double linearMillis = perQueryMillis(randomHistory(size, 3L, new LinearScanIndex()), linearQueries);
+            double kdTreeMillis = perQueryMillis(randomHistory(size, 3L, new KdTreeIndex()), queries);
+            System.out.printf("%-12d %14.4f %14.4f %9.1fx%n", size, linearMillis, kdTreeMillis, linearMillis / kdTreeMillis);
+        }
+        System.out.println();
+    }
+
+    // Recall of the HNSW index against the exact KD-tree answer, and how often the k = 3 vote still agrees
+    private static void benchmarkApproximateNeighbours() {
+        int recallK = 10;
+        double[][] queries = randomHistoryPoints(1_000, 2L);
+        for (int size : new int[]{100_000, 1_000_000}) {
+            double[][] points = randomHistoryPoints(size, 3L);
+            MaintenanceHistory exact = historyOf(points, new KdTreeIndex());
+            int[][] expected = new int[queries.length][recallK];
+            int[] expectedVotes = new int[queries.length];
+            for (int q = 0; q < queries.length; q++) {
+                exact.nearestNeighbours(queries[q], recallK, expected[q]);
+                Arrays.sort(expected[q]);
+                expectedVotes[q] = predictedLabel(exact, queries[q]);
+            }
+            double exactMillis = perQueryMillis(exact, queries);
+
+            System.out.printf("=== Approximate k-NN (HNSW, %d points, recall@%d over %d queries) ===%n",
+                size, recallK, queries.length);
+            System.out.printf("kd-tree (exact): %.4f ms/query%n", exactMillis);
+            // Building a million-point graph takes minutes, so only the default M is measured at that size
+            int[] ms = size >= 1_000_000 ? new int[]{HnswIndex.DEFAULT_M} : new int[]{8, HnswIndex.DEFAULT_M};
+            for (int m : ms) {
+                HnswIndex hnsw = new HnswIndex(m, HnswIndex.DEFAULT_EF_CONSTRUCTION, HnswIndex.DEFAULT_EF_SEARCH);
+                long buildStart = System.nanoTime();
+                MaintenanceHistory approximate = historyOf(points, hnsw);
+                double buildSeconds = (System.nanoTime() - buildStart) / 1e9;
+                System.out.printf("M = %d, efConstruction = %d, build %.1f s%n", m, HnswIndex.DEFAULT_EF_CONSTRUCTION, buildSeconds);
+                System.out.printf("%8s %10s %14s %12s %10s%n", "ef", "recall", "vote agreement", "ms/query", "speedup");
+                int[] found = new int[recallK];
+                for (int ef : new int[]{10, 20, 50, 100, 200}) {
+                    hnsw.setEfSearch(ef);
+                    long hits = 0;
+                    int agreements = 0;
+                    for (int q = 0; q < queries.length; q++) {
+                        int count = approximate.nearestNeighbours(queries[q], recallK, found);
+                        for (int i = 0; i < count; i++) {
+                            if (Arrays.binarySearch(expected[q], found[i]) >= 0) {
+                                hits++;
+                            }
+                        }
+                        if (predictedLabel(approximate, queries[q]) == expectedVotes[q]) {
+                            agreements++;
+                        }
+                    }
+                    double millis = perQueryMillis(approximate, queries);
+                    System.out.printf("%8d %10.4f %14.4f %12.4f %9.1fx%n", ef, (double) hits / (queries.length * recallK),
+                        (double) agreements / queries.length, millis, exactMillis / millis);
+                }
+            }
+            System.out.println();
+        }
+    }
+
+    // Heap footprint and scan speed of the off-heap columns against the heap arrays with the same scan kernel
+    private static void benchmarkOffHeapHistory() {
+        int size = 10_000_000;
+        double[][] queries = randomHistoryPoints(20, 2L);
+        System.out.printf("=== Off-heap maintenance history (%d points) ===%n", size);
+
+        long baseline = usedHeap();
+        MaintenanceHistory offHeap = randomHistory(size, 3L, (NeighbourIndex) null);
+        long offHeapBytes = usedHeap() - baseline;
+        double offHeapMillis = perQueryMillis(offHeap, queries);
+
+        baseline = usedHeap();
+        MaintenanceHistory onHeap = randomHistory(size, 3L, new LinearScanIndex());
+        long onHeapBytes = usedHeap() - baseline;
+        double onHeapMillis = perQueryMillis(onHeap, queries);
+
+        int mismatches = 0;
+        for (double[] query : queries) {
+            if (countPositiveNeighbours(offHeap, query) != countPositiveNeighbours(onHeap, query)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("heap arrays:    %6d MB heap, %8.3f ms/query%n", onHeapBytes >> 20, onHeapMillis);
+        System.out.printf("off-heap store: %6d MB heap, %8.3f ms/query%n", offHeapBytes >> 20, offHeapMillis);
+        System.out.printf("%d queries: %d mismatches%n%n", queries.length, mismatches);
+        sink += onHeap.size() + offHeap.size();
+    }
+
+    // Time from opening an existing memory-mapped log to the first answered query
+    private static void benchmarkHistoryLog() {
+        int size = 10_000_000;
+        double[] query = randomHistoryPoints(1, 2L)[0];
+        System.out.printf("=== Memory-mapped history log (%d points) ===%n", size);
+        try {
+            Path path = Files.createTempFile("maintenance-history", ".log");
+            try {
+                long start = System.nanoTime();
+                try (MappedHistoryLog log = MappedHistoryLog.open(path)) {
+                    RandomGenerator random = SpindleSimulation.newGenerator(3L);
+                    for (int i = 0; i < size; i++) {
+                        double[] point = randomHistoryPoint(random);
+                        log.append(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+                    }
+                }
+                System.out.printf("append and force: %.2f s (%d MB file)%n", (System.nanoTime() - start) / 1e9,
+                    Files.size(path) >> 20);
+
+                start = System.nanoTime();
+                try (MappedHistoryLog log = MappedHistoryLog.open(path)) {
+                    double opened = (System.nanoTime() - start) / 1e6;
+                    MaintenanceHistory history = new MaintenanceHistory(log);
+                    sink += countPositiveNeighbours(history, query);
+                    double answered = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("warm start: open %.2f ms, first query answered after %.1f ms (%d points)%n",
+                        opened, answered, history.size());
+                }
+            } finally {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            System.err.println("History log benchmark failed: " + e.getMessage());
+        }
+        System.out.println();
+    }
+
+    // Batched k-NN search against one query at a time, for the exact KD-tree and the linear scan
+    private static void benchmarkBatchPrediction() {
+        int size = 1_000_000;
+        double[][] queries = randomHistoryPoints(10_000, 2L);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.printf("=== Batch maintenance prediction (%d points, %d cores) ===%n", size,
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %8s %16s %16s %10s %11s%n", "index", "queries", "single ms/q", "batch ms/q",
+            "speedup", "mismatches");
+        // A linear scan of a million points per query is slow enough that fewer queries give a stable figure
+        MaintenanceHistory kdTree = randomHistory(size, 3L, new KdTreeIndex());
+        MaintenanceHistory linear = randomHistory(size, 3L, new LinearScanIndex());
+        double kdTreeSingle = reportBatch("kd-tree", kdTree, queries, queries, pool);
+        double linearSingle = reportBatch("linear", linear, Arrays.copyOf(queries, 512), Arrays.copyOf(queries, 16),
+            pool);
+        System.out.println();
+
+        // Pool sizes above the core count show what oversubscription costs on small machines
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] parallelisms = cores > 4 ? new int[]{1, 2, 4, cores} : new int[]{1, 2, 4};
+        System.out.println("=== Batch prediction by pool size (same index, single queries on one thread) ===");
+        System.out.printf("%-10s %6s %8s %14s %14s %10s%n", "index", "pool", "queries", "single q/s", "batch q/s",
+            "speedup");
+        for (int parallelism : parallelisms) {
+            reportBatchScaling("kd-tree", kdTree, queries, kdTreeSingle, parallelism);
+        }
+        for (int parallelism : parallelisms) {
+            reportBatchScaling("linear", linear, Arrays.copyOf(queries, 256), linearSingle, parallelism);
+        }
+        System.out.println();
+    }
+
+    private static void reportBatchScaling(String name, MaintenanceHistory history, double[][] queries,
+                                           double singleMillis, int parallelism) {
+        int k = 3;
+        int[] positives = new int[queries.length];
+        int[] counts = new int[queries.length];
+        double[] distances = new double[queries.length * k];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            history.searchBatch(queries, k, pool, positives, counts, distances);
+            long start = System.nanoTime();
+            int rounds = 3;
+            for (int i = 0; i < rounds; i++) {
+                history.searchBatch(queries, k, pool, positives, counts, distances);
+                sink += positives[0];
+            }
+            double batchMillis = (System.nanoTime() - start) / 1e6 / rounds / queries.length;
+            System.out.printf("%-10s %6d %8d %14.0f %14.0f %9.2fx%n", name, parallelism, queries.length,
+                1000.0 / singleMillis, 1000.0 / batchMillis, singleMillis / batchMillis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Returns the single-query time in ms so the pool-size table can compare against the same index
+    private static double reportBatch(String name, MaintenanceHistory history, double[][] batch, double[][] single,
+                                      ForkJoinPool pool) {
+        int k = 3;
+        int[] positives = new int[batch.length];
+        int[] counts = new int[batch.length];
+        double[] distances = new double[batch.length * k];
+        history.searchBatch(batch, k, pool, positives, counts, distances);
+        int mismatches = 0;
+        for (int q = 0; q < single.length; q++) {
+            if (positives[q] != countPositiveNeighbours(history, single[q]) || counts[q] != k) {
+                mismatches++;
+            }
+        }
+
+        double singleMillis = perQueryMillis(history, single);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            history.searchBatch(batch, k, pool, positives, counts, distances);
+        }
+        long start = System.nanoTime();
+        int rounds = 3;
+        for (int i = 0; i < rounds; i++) {
+            history.searchBatch(batch, k, pool, positives, counts, distances);
+            sink += positives[0];
+        }
+        double batchMillis = (System.nanoTime() - start) / 1e6 / rounds / batch.length;
+        System.out.printf("%-10s %8d %16.4f %16.4f %9.1fx %11d%n", name, batch.length, singleMillis, batchMillis,
+            singleMillis / batchMillis, mismatches);
+        return singleMillis;
+    }
+
+    // A long session appending to the history with and without the default reservoir
+    private static void benchmarkRetention() {
+        double[][] queries = randomHistoryPoints(100, 2L);
+        System.out.println("=== History retention (k-NN over a growing session) ===");
+        System.out.printf("%-12s %-22s %10s %10s %12s %12s%n", "inserted", "policy", "retained", "heap MB",
+            "insert us", "query ms");
+        RetentionPolicy[] policies = {
+            RetentionPolicy.unbounded(),
+            RetentionPolicy.unbounded().withCapacity(RetentionPolicy.DEFAULT_CAPACITY)
+        };
+        for (RetentionPolicy policy : policies) {
+            String name = policy.capacity() > 0 ? "reservoir " + policy.capacity() : "unbounded";
+            long baseline = usedHeap();
+            MaintenanceHistory history = new MaintenanceHistory(new KdTreeIndex(), 128, policy);
+            RandomGenerator random = SpindleSimulation.newGenerator(3L);
+            int inserted = 0;
+            for (int checkpoint : new int[]{100_000, 1_000_000, 3_000_000}) {
+                int from = inserted;
+                long start = System.nanoTime();
+                for (; inserted < checkpoint; inserted++) {
+                    double[] point = randomHistoryPoint(random);
+                    history.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+                }
+                double insertMicros = (System.nanoTime() - start) / 1e3 / (checkpoint - from);
+                System.out.printf("%-12d %-22s %10d %10d %12.3f %12.4f%n", checkpoint, name, history.size(),
+                    (usedHeap() - baseline) >> 20, insertMicros, perQueryMillis(history, queries));
+            }
+            sink += history.size();
+        }
+        System.out.println();
+    }
+
+    // Both predictor backends trained on the same stream: learn and predict latency, agreement with each other
+    // and accuracy against the labelling rule
+    private static void benchmarkPredictors() {
+        double[][] stream = randomHistoryPoints(200_000, 3L);
+        double[][] queries = randomHistoryPoints(10_000, 2L);
+        MaintenancePredictor[] predictors = {
+            new KnnMaintenancePredictor(new MaintenanceHistory(new KdTreeIndex(), stream.length), null),
+            new OnlineLogisticPredictor()
+        };
+        System.out.printf("=== Maintenance predictor backends (%d training points, %d queries) ===%n",
+            stream.length, queries.length);
+        int[][] predictions = new int[predictors.length][queries.length];
+        String[] rows = new String[predictors.length];
+        for (int p = 0; p < predictors.length; p++) {
+            MaintenancePredictor predictor = predictors[p];
+            long start = System.nanoTime();
+            for (double[] point : stream) {
+                predictor.learn(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+            }
+            double learnMicros = (System.nanoTime() - start) / 1e3 / stream.length;
+            double predictMillis = measure(predictor.getName() + " predict " + queries.length, () -> {
+                double positives = 0;
+                for (double[] query : queries) {
+                    positives += predictor.predict(query[0], query[1], query[2], query[3], query[4], query[5]);
+                }
+                return positives;
+            });
+            int correct = 0;
+            for (int q = 0; q < queries.length; q++) {
+                double[] query = queries[q];
+                predictions[p][q] = predictor.predict(query[0], query[1], query[2], query[3], query[4], query[5]);
+                correct += predictions[p][q] == (int) query[6] ? 1 : 0;
+            }
+            rows[p] = String.format("%-16s %12.3f %14.4f %10.4f", predictor.getName(), learnMicros,
+                predictMillis * 1e3 / queries.length, (double) correct / queries.length);
+        }
+        System.out.printf("%-16s %12s %14s %10s%n", "backend", "learn us", "predict us", "accuracy");
+        for (String row : rows) {
+            System.out.println(row);
+        }
+        int agreements = 0;
+        for (int q = 0; q < queries.length; q++) {
+            agreements += predictions[0][q] == predictions[1][q] ? 1 : 0;
+        }
+        System.out.printf("Agreement: %.4f%n%n", (double) agreements / queries.length);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Per-point division and square root against the columns scaled once on insert and ranked by squared distance
+    private static void benchmarkFeatureScaling() {
+        int size = 1_000_000;
+        double[][] points = randomHistoryPoints(size, 3L);
+        double[] query = randomHistoryPoints(1, 2L)[0];
+        MaintenanceHistory history = historyOf(points, new LinearScanIndex());
+        System.out.printf("=== Feature scaling (%d points) ===%n", size);
+        System.out.print("derived scales:");
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            System.out.printf(" %.4g", 1.0 / history.inverseScale(f));
+        }
+        System.out.println();
+
+        double[][] raw = new double[MaintenanceHistory.FEATURES][size];
+        double[][] scaled = new double[MaintenanceHistory.FEATURES][size];
+        double[] scaledQuery = new double[MaintenanceHistory.FEATURES];
+        for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+            double inverse = history.inverseScale(f);
+            for (int i = 0; i < size; i++) {
+                raw[f][i] = points[i][f];
+                scaled[f][i] = points[i][f] * inverse;
+            }
+            scaledQuery[f] = query[f] * inverse;
+        }
+        double[] scales = MaintenanceHistory.FEATURE_SCALES;
+        double divided = measure("divide + sqrt per point", () -> {
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                double sum = 0.0;
+                for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                    double difference = (query[f] - raw[f][i]) / scales[f];
+                    sum += difference * difference;
+                }
+                nearest = Math.min(nearest, Math.sqrt(sum));
+            }
+            return nearest;
+        });
+        double[] distances = new double[MaintenanceHistory.SCAN_BLOCK];
+        double squared = measure("pre-scaled squared kernel", () -> {
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int start = 0; start < size; start += MaintenanceHistory.SCAN_BLOCK) {
+                int count = Math.min(MaintenanceHistory.SCAN_BLOCK, size - start);
+                MaintenanceHistory.blockSquaredDistances(scaled, start, count, scaledQuery, distances);
+                for (int j = 0; j < count; j++) {
+                    nearest = Math.min(nearest, distances[j]);
+                }
+            }
+            return nearest;
+        });
+        System.out.printf("Speedup: %.1fx%n%n", divided / squared);
+    }
+
+    // Threads that append and query at the same time, against the read-write locked heap arrays
+    private static void benchmarkKnowledgeBase() {
+        int threads = 4;
+        int size = 200_000;
+        double[][] points = randomHistoryPoints(size, 3L);
+        double[][] queries = randomHistoryPoints(100, 2L);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.printf("=== Concurrent knowledge base (%d threads, %d cores) ===%n", threads,
+            Runtime.getRuntime().availableProcessors());
+
+        MaintenanceHistory concurrent = new MaintenanceHistory(new MaintenanceKnowledgeBase(KdTreeIndex::new));
+        pool.submit(() -> Arrays.stream(points).parallel().forEach(point ->
+            concurrent.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]))).join();
+        int mismatches = 0;
+        for (double[] query : queries) {
+            if (countPositiveNeighbours(concurrent, query) != referencePositiveNeighbours(points, query, 3, concurrent)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%d parallel appends, %d points visible, %d mismatches against a full sort%n", size,
+            concurrent.size(), mismatches);
+
+        System.out.printf("%-12s %14s %16s %16s%n", "history", "mixed ops/ms", "append p50 us", "append p99 us");
+        reportMixedWorkload("locked", historyOf(points, new KdTreeIndex()), queries, pool);
+        MaintenanceHistory snapshots = new MaintenanceHistory(new MaintenanceKnowledgeBase(KdTreeIndex::new));
+        for (double[] point : points) {
+            snapshots.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+        }
+        reportMixedWorkload("snapshots", snapshots, queries, pool);
+        pool.shutdown();
+        System.out.println();
+    }
+
+    // One append for every nine queries, spread over the pool; appends are timed individually because a
+    // writer waiting for readers shows up in their tail latency
+    private static void reportMixedWorkload(String name, MaintenanceHistory history, double[][] queries,
+                                            ForkJoinPool pool) {
+        int operations = 200_000;
+        RandomGenerator random = SpindleSimulation.newGenerator(5L);
+        double[][] appended = new double[operations / 10][];
+        for (int i = 0; i < appended.length; i++) {
+            appended[i] = randomHistoryPoint(random);
+        }
+        long[] appendNanos = new long[appended.length];
+        LongAdder positives = new LongAdder();
+        long start = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, operations).parallel().forEach(i -> {
+            if (i % 10 == 0) {
+                double[] point = appended[i / 10];
+                long appendStart = System.nanoTime();
+                history.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+                appendNanos[i / 10] = System.nanoTime() - appendStart;
+            } else {
+                positives.add(countPositiveNeighbours(history, queries[i % queries.length]));
+            }
+        })).join();
+        double millis = (System.nanoTime() - start) / 1e6;
+        sink += positives.sum();
+        Arrays.sort(appendNanos);
+        System.out.printf("%-12s %14.1f %16.1f %16.1f%n", name, operations / millis,
+            appendNanos[appendNanos.length / 2] / 1e3, appendNanos[appendNanos.length * 99 / 100] / 1e3);
+    }
+
+    // Design sweeps re-run every design a few times: the simulation learns each predicted point, so the cache
+    // has to bring its neighbourhoods up to date rather than drop them
+    private static void benchmarkPredictionCache() {
+        System.out.println("=== Maintenance prediction cache ===");
+        SpindleSimulation simulation = new SpindleSimulation(Runnable::run);
+        PredictionCacheStatistics before = simulation.getPredictionCacheStatistics();
+        long start = System.nanoTime();
+        for (int diameter = 150; diameter <= 240; diameter += 10) {
+            for (int speed = 8000; speed <= 12000; speed += 2000) {
+                SpindleParameters params = defaultParameters();
+                params.setWheelDiameter(diameter);
+                params.setMaxSpeed(speed);
+                for (long run = 0; run < 10; run++) {
+                    sink += simulation.simulate(params, 42L).getScenarioResults().size();
+                }
+            }
+        }
+        PredictionCacheStatistics after = simulation.getPredictionCacheStatistics();
+        System.out.printf("simulate sweep, 30 designs x 10 runs in %.0f ms: hit rate %.1f%% over %d lookups%n",
+            (System.nanoTime() - start) / 1e6, 100.0 * (after.getHits() - before.getHits())
+                / Math.max(1, after.getHits() + after.getMisses() - before.getHits() - before.getMisses()),
+            after.getHits() + after.getMisses() - before.getHits() - before.getMisses());
+
+        // 1000 operating points, each predicted and learned 10 times in a row with a little noise, on a large history
+        double[][] points = randomHistoryPoints(100_000, 3L);
+        double[][] sweep = randomHistoryPoints(1_000, 2L);
+        RandomGenerator random = SpindleSimulation.newGenerator(6L);
+        double[][] queries = new double[sweep.length * 10][];
+        for (int q = 0; q < queries.length; q++) {
+            double[] query = sweep[q / 10].clone();
+            for (int f = 0; f < MaintenanceHistory.FEATURES; f++) {
+                query[f] += (random.nextDouble() - 0.5) * 1e-4 * MaintenanceHistory.FEATURE_SCALES[f];
+            }
+            queries[q] = query;
+        }
+        for (int i = 0; i < 2; i++) {
+            predictAndLearnMicros(new KnnMaintenancePredictor(historyOf(points, new KdTreeIndex()), null), queries,
+                new int[queries.length]);
+            predictAndLearnMicros(new KnnMaintenancePredictor(historyOf(points, new KdTreeIndex()),
+                new PredictionCache(PredictionCache.DEFAULT_CAPACITY, PredictionCache.DEFAULT_RESOLUTION)), queries,
+                new int[queries.length]);
+        }
+        PredictionCache cache = new PredictionCache(PredictionCache.DEFAULT_CAPACITY, PredictionCache.DEFAULT_RESOLUTION);
+        MaintenancePredictor plain = new KnnMaintenancePredictor(historyOf(points, new KdTreeIndex()), null);
+        MaintenancePredictor cached = new KnnMaintenancePredictor(historyOf(points, new KdTreeIndex()), cache);
+        int[] plainLabels = new int[queries.length];
+        int[] cachedLabels = new int[queries.length];
+        double plainMicros = predictAndLearnMicros(plain, queries, plainLabels);
+        double cachedMicros = predictAndLearnMicros(cached, queries, cachedLabels);
+        int disagreements = 0;
+        for (int q = 0; q < queries.length; q++) {
+            disagreements += plainLabels[q] != cachedLabels[q] ? 1 : 0;
+        }
+        System.out.printf("%d predict + learn on %d points: %.2f us uncached, %.2f us cached (%.1fx), "
+            + "%d disagreements%n", queries.length, points.length, plainMicros, cachedMicros,
+            plainMicros / cachedMicros, disagreements);
+        System.out.println("cache: " + cached.getCacheStatistics());
+
+        // The same run on the lock-free knowledge base, whose snapshots catch up on appended points as well
+        PredictionCache baseCache = new PredictionCache(PredictionCache.DEFAULT_CAPACITY,
+            PredictionCache.DEFAULT_RESOLUTION);
+        MaintenancePredictor plainBase = new KnnMaintenancePredictor(knowledgeBaseOf(points), null);
+        MaintenancePredictor cachedBase = new KnnMaintenancePredictor(knowledgeBaseOf(points), baseCache);
+        double plainBaseMicros = predictAndLearnMicros(plainBase, queries, plainLabels);
+        double cachedBaseMicros = predictAndLearnMicros(cachedBase, queries, cachedLabels);
+        disagreements = 0;
+        for (int q = 0; q < queries.length; q++) {
+            disagreements += plainLabels[q] != cachedLabels[q] ? 1 : 0;
+        }
+        System.out.printf("knowledge base: %.2f us uncached, %.2f us cached (%.1fx), %d disagreements%n",
+            plainBaseMicros, cachedBaseMicros, plainBaseMicros / cachedBaseMicros, disagreements);
+        System.out.println("cache: " + cachedBase.getCacheStatistics());
+        System.out.println();
+    }
+
+    private static MaintenanceHistory knowledgeBaseOf(double[][] points) {
+        MaintenanceHistory history = new MaintenanceHistory(new MaintenanceKnowledgeBase(KdTreeIndex::new));
+        for (double[] point : points) {
+            history.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+        }
+        return history;
+    }
+
+    private static double predictAndLearnMicros(MaintenancePredictor predictor, double[][] queries, int[] labels) {
+        long start = System.nanoTime();
+        for (int q = 0; q < queries.length; q++) {
+            double[] query = queries[q];
+            labels[q] = predictor.predict(query[0], query[1], query[2], query[3], query[4], query[5]);
+            predictor.learn(query[0], query[1], query[2], query[3], query[4], query[5], (int) query[6]);
+        }
+        return (System.nanoTime() - start) / 1e3 / queries.length;
+    }
+
+    private static int predictedLabel(MaintenanceHistory history, double[] query) {
+        return countPositiveNeighbours(history, query) > 1 ? 1 : 0;
+    }
+
+    private static double perQueryMillis(MaintenanceHistory history, double[][] queries) {
+        DoubleSupplier round = () -> {
+            double positives = 0;
+            for (double[] query : queries) {
+                positives += countPositiveNeighbours(history, query);
+            }
+            return positives;
+        };
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += round.getAsDouble();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS / queries.length;
+    }
+
+    private static int countPositiveNeighbours(MaintenanceHistory history, double[] query) {
+        return history.countPositiveNeighbours(query[0], query[1], query[2], query[3], query[4], query[5], 3);
+    }
+
+    // Rows of vibration, temperature, load, bearing life, spindle life, wheel wear, label
+    private static double[][] randomHistoryPoints(int count, long seed) {
+        RandomGenerator random = SpindleSimulation.newGenerator(seed);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = randomHistoryPoint(random);
+        }
+        return points;
+    }
+
+    private static double[] randomHistoryPoint(RandomGenerator random) {
+        double vibration = 0.2 + random.nextDouble() * 2.0;
+        double temperature = 20.0 + random.nextDouble() * 30.0;
+        double load = 500.0 + random.nextDouble() * 1500.0;
+        double bearingLife = 1000.0 + random.nextDouble() * 49000.0;
+        double spindleLife = random.nextDouble();
+        double wheelWear = random.nextDouble() * 40.0;
+        int label = (vibration > 1.0 || bearingLife < 5000 || spindleLife < 0.5 || wheelWear > 20.0) ? 1 : 0;
+        return new double[]{vibration, temperature, load, bearingLife, spindleLife, wheelWear, label};
+    }
+
+    // A null index builds the history in an off-heap store
+    private static MaintenanceHistory randomHistory(int count, long seed, NeighbourIndex index) {
+        RandomGenerator random = SpindleSimulation.newGenerator(seed);
+        MaintenanceHistory history = index == null
+            ? new MaintenanceHistory(new OffHeapColumnStore())
+            : new MaintenanceHistory(index, count);
+        for (int i = 0; i < count; i++) {
+            double[] point = randomHistoryPoint(random);
+            history.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+        }
+        return history;
+    }
+
+    private static MaintenanceHistory historyOf(double[][] points, NeighbourIndex index) {
+        MaintenanceHistory history = new MaintenanceHistory(index, points.length);
+        for (double[] point : points) {
+            history.add(point[0], point[1], point[2], point[3], point[4], point[5], (int) point[6]);
+        }
+        return history;
+    }
+
+    // Sorts every distance as the prediction originally did, in the scaled space of the given history
+    private static int referencePositiveNeighbours(double[][] points, double[] query, int k, MaintenanceHistory scaled) {
+        double[] inverse = new double[MaintenanceHistory.FEATURES];
+        for (int f = 0; f < inverse.length; f++) {
+            inverse[f] = scaled.inverseScale(f);
+        }
+        List<double[]> distances = new ArrayList<>();
+        for (double[] point : points) {
+            double squared = 0.0;
+            for (int f = 0; f < inverse.length; f++) {
+                double difference = query[f] * inverse[f] - point[f] * inverse[f];
+                squared += difference * difference;
+            }
+            distances.add(new double[]{Math.sqrt(squared), point[6]});
+        }
+        distances.sort((a, b) -> Double.compare(a[0], b[0]));
+        int positives = 0;
+        for (int i = 0; i < k && i < distances.size(); i++) {
+            positives += (int) distances.get(i)[1];
+        }
+        return positives;
+    }
+
+    // Per-sample S-N evaluation as the fatigue analysis originally did it
+    private static double referenceMinerDamage(double[] loads) {
+        double sectionModulus = Math.PI * Math.pow(0.05, 3) / 32;
+        double totalDamage = 0.0;
+        for (double load : loads) {
+            double stress = load * 0.1 / sectionModulus;
+            double logN = 20.0 - 6.0 * Math.log10(stress / 1e6);
+            totalDamage += 1.0 / Math.pow(10, logN);
+        }
+        return totalDamage;
+    }
+
+    static SpindleParameters defaultParameters() {
+        SpindleParameters params = new SpindleParameters();
+        params.setSpindleType("Belt-Driven");
+        params.setPowerRating(5.0);
+        params.setMaxSpeed(10000);
+        params.setWheelDiameter(200);
+        params.setBearingType("Angular Contact");
+        params.setBearingPreload(500);
+        params.setCoolingType("Liquid");
+        params.setLubricationType("Grease");
+        params.setToolInterface("Precision Collet");
+        params.setAlignmentTolerance(0.001);
+        return params;
+    }
+
+    // Returns the mean time per round in milliseconds
+    static double measure(String name, DoubleSupplier task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += task.getAsDouble();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += task.getAsDouble();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+        System.out.printf("%-28s %10.3f ms/op%n", name, millis);
+        return millis;
+    }
+
+    private static boolean contains(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Outcome of simulate() or simulateTimeBased(): the computed numbers plus a text report that is only
+// formatted the first time getReport() is called. Invalid parameters give a result that carries just
+// the validation message.
+public final class SimulationResult {
+    private final String validationMessage;
+    private final long seed;
+    private final List<ScenarioResult> scenarioResults;
+    private final TimeBasedResult timeBasedResult;
+    private Supplier<String> renderer;
+    private String report;
+
+    private SimulationResult(String validationMessage, long seed, List<ScenarioResult> scenarioResults,
+                             TimeBasedResult timeBasedResult, Supplier<String> renderer) {
+        this.validationMessage = validationMessage;
+        this.seed = seed;
+        this.scenarioResults = scenarioResults;
+        this.timeBasedResult = timeBasedResult;
+        this.renderer = renderer;
+    }
+
+    static SimulationResult invalid(String validationMessage) {
+        return new SimulationResult(validationMessage, 0L, Collections.emptyList(), null, null);
+    }
+
+    static SimulationResult ofScenarios(long seed, List<ScenarioResult> scenarioResults, Supplier<String> renderer) {
+        return new SimulationResult("Valid", seed, Collections.unmodifiableList(scenarioResults), null, renderer);
+    }
+
+    static SimulationResult ofTimeBased(long seed, TimeBasedResult timeBasedResult, Supplier<String> renderer) {
+        return new SimulationResult("Valid", seed, Collections.emptyList(), timeBasedResult, renderer);
+    }
+
+    public boolean isValid() { return validationMessage.equals("Valid"); }
+
+    public String getValidationMessage() { return validationMessage; }
+
+    public long getSeed() { return seed; }
+
+    // Scenario results in scenario order; empty for time-based runs
+    public List<ScenarioResult> getScenarioResults() { return scenarioResults; }
+
+    // Falls back to the first scenario when no scenario has the given name
+    public ScenarioResult getScenario(String name) {
+        for (ScenarioResult result : scenarioResults) {
+            if (result.getScenarioName().equals(name)) {
+                return result;
+            }
+        }
+        return scenarioResults.isEmpty() ? null : scenarioResults.get(0);
+    }
+
+    // Null for scenario runs
+    public TimeBasedResult getTimeBasedResult() { return timeBasedResult; }
+
+    public synchronized String getReport() {
+        if (report == null) {
+            report = renderer == null ? validationMessage : renderer.get();
+            renderer = null;
+        }
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+}
\ No newline at end of file
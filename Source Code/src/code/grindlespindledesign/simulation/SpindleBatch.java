@@ -0,0 +1,126 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.List;
+
+// Many spindle designs stored column-wise, with kernels that evaluate a formula for every design in one loop.
+// Categories are kept as byte codes (enum ordinals); their coefficients are expanded into double columns when a
+// design is set, so the kernels are plain arithmetic over arrays that the JIT can vectorize. Each kernel uses
+// the same operations in the same order as the matching SpindleSimulation method, so results are identical.
+public final class SpindleBatch {
+    private static final SpindleType[] SPINDLE_TYPES = SpindleType.values();
+    private static final BearingType[] BEARING_TYPES = BearingType.values();
+    private static final CoolingType[] COOLING_TYPES = CoolingType.values();
+    private static final LubricationType[] LUBRICATION_TYPES = LubricationType.values();
+    private static final ToolInterface[] TOOL_INTERFACES = ToolInterface.values();
+
+    private final int size;
+
+    // Design columns
+    private final double[] powerRating;
+    private final double[] speed;
+    private final double[] wheelDiameter;
+    private final double[] preload;
+    private final double[] alignmentTolerance;
+    private final byte[] spindleCode;
+    private final byte[] bearingCode;
+    private final byte[] coolingCode;
+    private final byte[] lubricationCode;
+    private final byte[] toolCode;
+
+    // Coefficient columns derived from the codes
+    private final double[] baseVibration;
+    private final double[] alignmentFactor;
+    private final double[] toolFactor;
+    private final double[] baseTemperature;
+    private final double[] stiffness;
+
+    public SpindleBatch(int size) {
+        this.size = size;
+        powerRating = new double[size];
+        speed = new double[size];
+        wheelDiameter = new double[size];
+        preload = new double[size];
+        alignmentTolerance = new double[size];
+        spindleCode = new byte[size];
+        bearingCode = new byte[size];
+        coolingCode = new byte[size];
+        lubricationCode = new byte[size];
+        toolCode = new byte[size];
+        baseVibration = new double[size];
+        alignmentFactor = new double[size];
+        toolFactor = new double[size];
+        baseTemperature = new double[size];
+        stiffness = new double[size];
+    }
+
+    public static SpindleBatch of(List<SpindleConfiguration> designs) {
+        SpindleBatch batch = new SpindleBatch(designs.size());
+        for (int i = 0; i < designs.size(); i++) {
+            batch.set(i, designs.get(i));
+        }
+        return batch;
+    }
+
+    public int size() { return size; }
+
+    public void set(int index, SpindleConfiguration design) {
+        powerRating[index] = design.powerRating();
+        speed[index] = design.maxSpeed();
+        wheelDiameter[index] = design.wheelDiameter();
+        preload[index] = design.bearingPreload();
+        alignmentTolerance[index] = design.alignmentTolerance();
+        spindleCode[index] = (byte) design.spindleType().ordinal();
+        bearingCode[index] = (byte) design.bearingType().ordinal();
+        coolingCode[index] = (byte) design.coolingType().ordinal();
+        lubricationCode[index] = (byte) design.lubricationType().ordinal();
+        toolCode[index] = (byte) design.toolInterface().ordinal();
+
+        baseVibration[index] = design.bearingType().getBaseVibration();
+        alignmentFactor[index] = design.alignmentFactor();
+        toolFactor[index] = design.toolInterface().getVibrationFactor();
+        baseTemperature[index] = design.coolingType().getBaseTemperatureRise();
+        stiffness[index] = design.bearingType().getStiffness();
+    }
+
+    public SpindleConfiguration get(int index) {
+        return new SpindleConfiguration(SPINDLE_TYPES[spindleCode[index]], powerRating[index], (int) speed[index],
+                                        wheelDiameter[index], BEARING_TYPES[bearingCode[index]], preload[index],
+                                        COOLING_TYPES[coolingCode[index]], LUBRICATION_TYPES[lubricationCode[index]],
+                                        TOOL_INTERFACES[toolCode[index]], alignmentTolerance[index]);
+    }
+
+    // Same as SpindleSimulation.calculateRequiredPower for every design, in kW
+    public double[] requiredPower(double[] out) {
+        double materialFactor = 1.2;
+        for (int i = 0; i < size; i++) {
+            out[i] = (wheelDiameter[i] / 1000.0) * (speed[i] / 1000.0) * 2.5 * materialFactor;
+        }
+        return out;
+    }
+
+    // Same as SpindleSimulation.estimateVibration, in mm/s
+    public double[] vibration(double[] out) {
+        for (int i = 0; i < size; i++) {
+            out[i] = baseVibration[i] * (speed[i] / 10000.0) * alignmentFactor[i] * toolFactor[i];
+        }
+        return out;
+    }
+
+    // Same as SpindleSimulation.estimateTemperatureRise, in °C
+    public double[] temperatureRise(double[] out) {
+        for (int i = 0; i < size; i++) {
+            out[i] = baseTemperature[i] + ((speed[i] / 10000.0) * 5.0) + ((preload[i] / 500.0) * 2.0);
+        }
+        return out;
+    }
+
+    // Same as SpindleSimulation.calculateResonanceFrequency, in Hz
+    public double[] resonanceFrequency(double[] out) {
+        double twoPi = 2 * Math.PI;
+        for (int i = 0; i < size; i++) {
+            double mass = wheelDiameter[i] / 1000.0 * 2.0;
+            out[i] = Math.sqrt(stiffness[i] / mass) / twoPi;
+        }
+        return out;
+    }
+}
\ No newline at end of file
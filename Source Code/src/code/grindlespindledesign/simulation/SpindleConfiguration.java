@@ -0,0 +1,49 @@
+package code.grindlespindledesign.simulation;
+
+import java.util.Objects;
+
+// Immutable, enum-typed spindle design used by the simulation kernels. The per-category coefficients live on
+// the enum constants, so evaluating a design never compares strings. SpindleParameters stays the mutable
+// bean behind the Swing form and builds one of these with build().
+public record SpindleConfiguration(SpindleType spindleType, double powerRating, int maxSpeed, double wheelDiameter,
+                                   BearingType bearingType, double bearingPreload, CoolingType coolingType,
+                                   LubricationType lubricationType, ToolInterface toolInterface,
+                                   double alignmentTolerance) {
+
+    public SpindleConfiguration {
+        Objects.requireNonNull(spindleType, "spindleType");
+        Objects.requireNonNull(bearingType, "bearingType");
+        Objects.requireNonNull(coolingType, "coolingType");
+        Objects.requireNonNull(lubricationType, "lubricationType");
+        Objects.requireNonNull(toolInterface, "toolInterface");
+    }
+
+    public SpindleConfiguration withMaxSpeed(int maxSpeed) {
+        return new SpindleConfiguration(spindleType, powerRating, maxSpeed, wheelDiameter, bearingType, bearingPreload,
+                                        coolingType, lubricationType, toolInterface, alignmentTolerance);
+    }
+
+    // Mutable copy for code that still works on the bean (e.g. to fill the form)
+    public SpindleParameters toParameters() {
+        SpindleParameters params = new SpindleParameters();
+        params.setSpindleType(spindleType.getLabel());
+        params.setPowerRating(powerRating);
+        params.setMaxSpeed(maxSpeed);
+        params.setWheelDiameter(wheelDiameter);
+        params.setBearingType(bearingType.getLabel());
+        params.setBearingPreload(bearingPreload);
+        params.setCoolingType(coolingType.getLabel());
+        params.setLubricationType(lubricationType.getLabel());
+        params.setToolInterface(toolInterface.getLabel());
+        params.setAlignmentTolerance(alignmentTolerance);
+        return params;
+    }
+
+    public double alignmentFactor() {
+        return alignmentTolerance > 0.002 ? 1.2 : 1.0;
+    }
+
+    public double lifeAdjustmentFactor() {
+        return lubricationType.getLifeFactor() * coolingType.getLifeFactor();
+    }
+}
\ No newline at end of file
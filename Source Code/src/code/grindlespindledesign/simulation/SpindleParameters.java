@@ -42,4 +42,12 @@ public class SpindleParameters {
     
     public double getAlignmentTolerance() { return alignmentTolerance; }
     public void setAlignmentTolerance(double alignmentTolerance) { this.alignmentTolerance = alignmentTolerance; }
+
+    // Immutable snapshot for the simulation; throws IllegalArgumentException for an unknown type label
+    public SpindleConfiguration build() {
+        return new SpindleConfiguration(SpindleType.fromLabel(spindleType), powerRating, maxSpeed, wheelDiameter,
+                                        BearingType.fromLabel(bearingType), bearingPreload,
+                                        CoolingType.fromLabel(coolingType), LubricationType.fromLabel(lubricationType),
+                                        ToolInterface.fromLabel(toolInterface), alignmentTolerance);
+    }
 }
\ No newline at end of file
@@ -2,42 +2,51 @@ package code.grindlespindledesign.simulation;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 public class SpindleSimulation {
-    private static List<DataPoint> historicalData = new ArrayList<>();
-    private static final Random random = new Random();
-
-    // DataPoint class to store feature vectors and labels
-    private static class DataPoint {
-        double vibration;
-        double temperature;
-        double load;
-        double bearingLife;
-        double spindleLife;
-        double wheelWear;
-        int label; // 1 = maintenance needed, 0 = no maintenance
-
-        DataPoint(double vibration, double temperature, double load, double bearingLife, 
-                 double spindleLife, double wheelWear, int label) {
-            this.vibration = vibration;
-            this.temperature = temperature;
-            this.load = load;
-            this.bearingLife = bearingLife;
-            this.spindleLife = spindleLife;
-            this.wheelWear = wheelWear;
-            this.label = label;
-        }
-    }
+    private static final MaintenancePredictor maintenancePredictor = MaintenancePredictor.fromSystemProperties();
+    // Held while the bootstrap history is generated, so no prediction sees it half-built
+    private static final Object BOOTSTRAP_LOCK = new Object();
+    private static volatile boolean bootstrapped;
+    // Fixed seed so the synthetic bootstrap history is the same on every start
+    private static final long HISTORY_SEED = 0x1940_0001L;
+    // Load profiles draw one independent random stream per chunk of this many samples
+    static final int RANDOM_CHUNK_SIZE = 4096;
+
+    private final Executor executor;
+
+    // Shaft S-N curve and geometry used by the fatigue analysis
+    private static final double SN_CURVE_A = 20.0;
+    private static final double SN_CURVE_B = 6.0;
+    private static final double SHAFT_DIAMETER = 0.05;
+    private static final double SHAFT_SECTION_MODULUS = Math.PI * Math.pow(SHAFT_DIAMETER, 3) / 32;
+    // logN = a - b * log10(S) with S = load * 0.1 / Z in MPa gives 1/N = 10^-a * S^b = coefficient * load^b
+    static final double CYCLE_DAMAGE_COEFFICIENT =
+        Math.pow(10, -SN_CURVE_A) * Math.pow(0.1 / SHAFT_SECTION_MODULUS / 1e6, SN_CURVE_B);
+
+    // Load profile shape: sinusoidal variation amplitude and random spike magnitude
+    private static final double LOAD_PERIOD = 2.0;
+    private static final double LOAD_VARIATION = 0.3;
+    static final double SPIKE_PROBABILITY = 0.1;
+    static final double SPIKE_FACTOR = 1.5;
 
     // Simulation Scenario class to define test cases
-    private static class SimulationScenario {
-        String name;
-        double speedFactor; // Multiplier for maxSpeed (e.g., 1.0 = maxSpeed, 0.5 = half maxSpeed)
-        double loadFactor;  // Multiplier for estimated load
-        double duration;    // Simulation duration in seconds
+    public static class SimulationScenario {
+        final String name;
+        final double speedFactor; // Multiplier for maxSpeed (e.g., 1.0 = maxSpeed, 0.5 = half maxSpeed)
+        final double loadFactor;  // Multiplier for estimated load
+        final double duration;    // Simulation duration in seconds
 
-        SimulationScenario(String name, double speedFactor, double loadFactor, double duration) {
+        public SimulationScenario(String name, double speedFactor, double loadFactor, double duration) {
             this.name = name;
             this.speedFactor = speedFactor;
             this.loadFactor = loadFactor;
@@ -45,114 +54,210 @@ public class SpindleSimulation {
         }
     }
 
-    public String simulate(SpindleParameters params) {
-        // Validate parameters
-        String validationResult = validateParameters(params);
-        if (!validationResult.equals("Valid")) {
-            return validationResult;
-        }
+    public SpindleSimulation() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // Scenario stages are fanned out on this executor (e.g. a ForkJoinPool or a virtual-thread executor)
+    public SpindleSimulation(Executor executor) {
+        this.executor = executor;
+    }
 
-        // Define scenarios
+    public static List<SimulationScenario> defaultScenarios() {
         List<SimulationScenario> scenarios = new ArrayList<>();
         scenarios.add(new SimulationScenario("High-Speed", 1.0, 0.8, 10.0));
         scenarios.add(new SimulationScenario("High-Torque", 0.6, 1.2, 10.0));
         scenarios.add(new SimulationScenario("Balanced", 0.8, 1.0, 10.0));
+        return scenarios;
+    }
 
+    // Seed for callers that do not ask for a reproducible run
+    public static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    // Every stream in a run is split from this generator, so equal seeds give identical output
+    public static SplittableGenerator newGenerator(long seed) {
+        return new SplittableRandom(seed);
+    }
+
+    public SimulationResult simulate(SpindleParameters params) {
+        return simulate(params, defaultScenarios(), randomSeed());
+    }
+
+    public SimulationResult simulate(SpindleParameters params, long seed) {
+        return simulate(params, defaultScenarios(), seed);
+    }
+
+    public SimulationResult simulate(SpindleParameters params, List<SimulationScenario> scenarios) {
+        return simulate(params, scenarios, randomSeed());
+    }
+
+    public SimulationResult simulate(SpindleParameters params, List<SimulationScenario> scenarios, long seed) {
+        // Validate parameters
+        String validationResult = validateParameters(params);
+        if (!validationResult.equals("Valid")) {
+            return SimulationResult.invalid(validationResult);
+        }
+
+        SpindleConfiguration configuration = params.build();
+        List<ScenarioResult> scenarioResults = runSimulationStages(configuration, scenarios, newGenerator(seed));
+        return SimulationResult.ofScenarios(seed, scenarioResults,
+            () -> renderSimulationReport(configuration, scenarioResults, seed));
+    }
+
+    private String renderSimulationReport(SpindleConfiguration params, List<ScenarioResult> scenarioResults, long seed) {
         StringBuilder comprehensiveReport = new StringBuilder();
-        comprehensiveReport.append("=== Systematic Spindle Simulation Results ===\n\n");
+        comprehensiveReport.append("=== Systematic Spindle Simulation Results ===\n");
+        comprehensiveReport.append(String.format("Random seed: %d\n\n", seed));
 
-        for (SimulationScenario scenario : scenarios) {
-            comprehensiveReport.append(runSimulationStage(params, scenario));
+        for (ScenarioResult result : scenarioResults) {
+            comprehensiveReport.append(renderStageReport(result));
         }
 
-        comprehensiveReport.append(generateComprehensiveReport(params, scenarios));
+        comprehensiveReport.append(generateComprehensiveReport(params, scenarioResults));
         return comprehensiveReport.toString();
     }
 
-    private String runSimulationStage(SpindleParameters params, SimulationScenario scenario) {
-        StringBuilder results = new StringBuilder();
-        results.append(String.format("=== Scenario: %s ===\n\n", scenario.name));
+    SpindleConfiguration adjustForScenario(SpindleConfiguration params, SimulationScenario scenario) {
+        return params.withMaxSpeed((int) (params.maxSpeed() * scenario.speedFactor));
+    }
+
+    // Stages run concurrently; predictions and history appends then happen in scenario order so the
+    // outcome matches a sequential run
+    private List<ScenarioResult> runSimulationStages(SpindleConfiguration params, List<SimulationScenario> scenarios,
+                                                     SplittableGenerator generator) {
+        List<CompletableFuture<ScenarioResult>> futures = new ArrayList<>(scenarios.size());
+        for (SimulationScenario scenario : scenarios) {
+            // Split before dispatch so each stage owns its stream regardless of scheduling
+            SplittableGenerator scenarioGenerator = generator.split();
+            futures.add(CompletableFuture.supplyAsync(
+                () -> runSimulationStage(params, scenario, scenarioGenerator), executor));
+        }
 
+        List<ScenarioResult> scenarioResults = new ArrayList<>(futures.size());
+        for (CompletableFuture<ScenarioResult> future : futures) {
+            ScenarioResult result;
+            try {
+                result = future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+            recordMaintenancePrediction(result);
+            scenarioResults.add(result);
+        }
+        return scenarioResults;
+    }
+
+    ScenarioResult runSimulationStage(SpindleConfiguration params, SimulationScenario scenario,
+                                      SplittableGenerator generator) {
         // Adjust parameters for scenario
-        SpindleParameters adjustedParams = new SpindleParameters();
-        adjustedParams.setSpindleType(params.getSpindleType());
-        adjustedParams.setPowerRating(params.getPowerRating());
-        adjustedParams.setMaxSpeed((int) (params.getMaxSpeed() * scenario.speedFactor));
-        adjustedParams.setWheelDiameter(params.getWheelDiameter());
-        adjustedParams.setBearingType(params.getBearingType());
-        adjustedParams.setBearingPreload(params.getBearingPreload());
-        adjustedParams.setCoolingType(params.getCoolingType());
-        adjustedParams.setLubricationType(params.getLubricationType());
-        adjustedParams.setToolInterface(params.getToolInterface());
-        adjustedParams.setAlignmentTolerance(params.getAlignmentTolerance());
+        SpindleConfiguration adjustedParams = adjustForScenario(params, scenario);
+
+        double requiredPower = calculateRequiredPower(adjustedParams.wheelDiameter(), adjustedParams.maxSpeed());
+        double tempRise = estimateTemperatureRise(adjustedParams);
+        double thermalExpansion = calculateThermalExpansion(tempRise);
+        double vibrationLevel = estimateVibration(adjustedParams);
+        double resonanceFreq = calculateResonanceFrequency(adjustedParams);
+
+        LoadProfile loadProfile = generateLoadProfile(adjustedParams, scenario.duration, scenario.loadFactor, generator);
+        ProfileMetrics metrics = analyzeLoadProfile(adjustedParams, loadProfile, scenario.loadFactor);
+        double bearingLifeHours = calculateBearingL10Life(adjustedParams, metrics);
+        double spindleLifePercentage = calculateSpindleFatigueLife(adjustedParams, metrics);
+        double wear = calculateWheelWear(adjustedParams, metrics, scenario.duration);
+        double wearVibration = calculateWearInducedVibration(adjustedParams, wear);
+        double avgLoad = metrics.average(estimateLoad(adjustedParams));
+
+        return new ScenarioResult(scenario.name, scenario.duration, adjustedParams, loadProfile, metrics,
+            requiredPower, tempRise, thermalExpansion, vibrationLevel, resonanceFreq,
+            bearingLifeHours, spindleLifePercentage, wear, wearVibration, avgLoad);
+    }
+
+    private void recordMaintenancePrediction(ScenarioResult result) {
+        // Maintenance Prediction
+        result.setMaintenanceNeeded(predictMaintenance(result.getTotalVibration(), result.getOperatingTemperature(),
+                                                       result.getAverageLoad(), result.getBearingLifeHours(),
+                                                       result.getSpindleLife(), result.getWheelWear()));
+
+        // Add to historical data
+        maintenancePredictor.learn(result.getTotalVibration(), result.getOperatingTemperature(), result.getAverageLoad(),
+                                   result.getBearingLifeHours(), result.getSpindleLife(), result.getWheelWear(),
+                                   result.getMaintenanceLabel());
+    }
+
+    private String renderStageReport(ScenarioResult result) {
+        SpindleConfiguration adjustedParams = result.getAdjustedParams();
+        StringBuilder results = new StringBuilder();
+        results.append(String.format("=== Scenario: %s ===\n\n", result.getScenarioName()));
 
         // Power Analysis
-        double requiredPower = calculateRequiredPower(adjustedParams.getWheelDiameter(), adjustedParams.getMaxSpeed());
+        double requiredPower = result.getRequiredPower();
         results.append(String.format("Power Analysis: %.2f kW required, %.2f kW provided\n", 
-            requiredPower, adjustedParams.getPowerRating()));
-        results.append(requiredPower <= adjustedParams.getPowerRating() ? 
+            requiredPower, adjustedParams.powerRating()));
+        results.append(requiredPower <= adjustedParams.powerRating() ? 
             "Power rating sufficient\n" : 
             "Warning: Power rating may be insufficient\n");
 
         // Bearing Analysis
         results.append("\nBearing Analysis:\n");
         results.append(evaluateBearingPerformance(adjustedParams)).append("\n");
-        results.append(String.format("Bearing Preload: %.0f N\n", adjustedParams.getBearingPreload()));
-        results.append(adjustedParams.getBearingPreload() >= 300 && adjustedParams.getBearingPreload() <= 1000 ? 
+        results.append(String.format("Bearing Preload: %.0f N\n", adjustedParams.bearingPreload()));
+        results.append(adjustedParams.bearingPreload() >= 300 && adjustedParams.bearingPreload() <= 1000 ? 
             "Preload within optimal range\n" : 
             "Warning: Preload may cause excessive heat or play\n");
 
         // Thermal Analysis
         results.append("\nThermal Analysis:\n");
-        double tempRise = estimateTemperatureRise(adjustedParams);
-        double thermalExpansion = calculateThermalExpansion(tempRise);
+        double tempRise = result.getTemperatureRise();
         results.append(String.format("Estimated temperature rise: %.1f°C\n", tempRise));
-        results.append(String.format("Thermal expansion: %.4f mm\n", thermalExpansion));
+        results.append(String.format("Thermal expansion: %.4f mm\n", result.getThermalExpansion()));
         results.append(tempRise <= 30 ? 
             "Thermal performance acceptable\n" : 
             "Warning: Potential thermal issues\n");
 
         // Vibration Analysis
         results.append("\nVibration Analysis:\n");
-        double vibrationLevel = estimateVibration(adjustedParams);
-        double resonanceFreq = calculateResonanceFrequency(adjustedParams);
+        double vibrationLevel = result.getVibration();
         results.append(String.format("Estimated vibration level: %.2f mm/s\n", vibrationLevel));
-        results.append(String.format("Resonance frequency: %.0f Hz\n", resonanceFreq));
+        results.append(String.format("Resonance frequency: %.0f Hz\n", result.getResonanceFrequency()));
         results.append(vibrationLevel <= 1.0 ? 
             "Vibration within ISO 1940 G1 standards\n" : 
             "Warning: Excessive vibration predicted\n");
 
         // Alignment Analysis
         results.append("\nAlignment Analysis:\n");
-        results.append(String.format("Alignment tolerance: %.4f mm\n", adjustedParams.getAlignmentTolerance()));
-        results.append(adjustedParams.getAlignmentTolerance() <= 0.002 ? 
+        results.append(String.format("Alignment tolerance: %.4f mm\n", adjustedParams.alignmentTolerance()));
+        results.append(adjustedParams.alignmentTolerance() <= 0.002 ? 
             "Alignment within specifications\n" : 
             "Warning: Alignment may cause chatter marks\n");
 
         // Tool Interface Analysis
         results.append("\nTool Interface Analysis:\n");
-        results.append("Tool Interface: ").append(adjustedParams.getToolInterface()).append("\n");
-        results.append(adjustedParams.getToolInterface().equals("HSK") && adjustedParams.getMaxSpeed() > 10000 ? 
+        results.append("Tool Interface: ").append(adjustedParams.toolInterface()).append("\n");
+        results.append(adjustedParams.toolInterface() == ToolInterface.HSK && adjustedParams.maxSpeed() > 10000 ? 
             "HSK interface optimal for high-speed operation\n" : 
             "Tool interface suitable for specified parameters\n");
 
         // Dynamic Load Profile
         results.append("\nDynamic Load Profile:\n");
-        List<Double> loadProfile = generateDynamicLoadProfile(adjustedParams, scenario.duration, scenario.loadFactor);
-        results.append(String.format("Dynamic Load (N) over %.1f seconds:\n", scenario.duration));
+        LoadProfile loadProfile = result.getLoadProfile();
+        results.append(String.format("Dynamic Load (N) over %.1f seconds:\n", result.getDuration()));
         for (int i = 0; i < loadProfile.size(); i++) {
-            results.append(String.format("t=%.1f s: %.0f N\n", i * 0.1, loadProfile.get(i)));
+            results.append(String.format("t=%.1f s: %.0f N\n", i * loadProfile.getTimeStep(), loadProfile.get(i)));
         }
 
         // Fatigue Analysis
         results.append("\nFatigue Analysis:\n");
-        double bearingLifeHours = calculateBearingL10Life(adjustedParams, loadProfile);
+        double bearingLifeHours = result.getBearingLifeHours();
         results.append(String.format("Bearing L10 Life: %.0f hours\n", bearingLifeHours));
         results.append(bearingLifeHours >= 20000 ? 
             "Bearing life acceptable\n" : 
             "Warning: Short bearing life predicted\n");
 
-        double spindleLifePercentage = calculateSpindleFatigueLife(adjustedParams, loadProfile);
+        double spindleLifePercentage = result.getSpindleLife();
         results.append(String.format("Spindle Shaft Remaining Life: %.1f%%\n", spindleLifePercentage * 100));
         results.append(spindleLifePercentage >= 0.5 ? 
             "Spindle shaft life acceptable\n" : 
@@ -160,10 +265,9 @@ public class SpindleSimulation {
 
         // Grinding Wheel Wear Analysis
         results.append("\nGrinding Wheel Wear Analysis:\n");
-        double initialDiameter = adjustedParams.getWheelDiameter();
-        double wear = calculateWheelWear(adjustedParams, loadProfile, scenario.duration);
-        double remainingDiameter = initialDiameter - wear;
-        double wearVibration = calculateWearInducedVibration(adjustedParams, wear);
+        double initialDiameter = adjustedParams.wheelDiameter();
+        double remainingDiameter = initialDiameter - result.getWheelWear();
+        double wearVibration = result.getWearVibration();
         results.append(String.format("Initial Wheel Diameter: %.1f mm\n", initialDiameter));
         results.append(String.format("Remaining Wheel Diameter: %.1f mm\n", remainingDiameter));
         results.append(String.format("Wear-Induced Vibration: %.2f mm/s\n", wearVibration));
@@ -176,63 +280,30 @@ public class SpindleSimulation {
 
         // Maintenance Prediction
         results.append("\nMaintenance Prediction:\n");
-        if (historicalData.isEmpty()) {
-            generateHistoricalData();
-        }
-        double totalVibration = vibrationLevel + wearVibration;
-        double avgLoad = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(estimateLoad(adjustedParams));
-        int maintenanceNeeded = predictMaintenance(totalVibration, tempRise + 20.0, avgLoad, 
-                                                  bearingLifeHours, spindleLifePercentage, wear);
-        results.append(maintenanceNeeded == 1 ? 
+        results.append(result.getMaintenanceNeeded() == 1 ? 
             "Maintenance Needed: Yes (e.g., bearing replacement, wheel dressing)\n" : 
             "Maintenance Needed: No\n");
 
-        // Add to historical data
-        int label = (totalVibration > 1.0 || bearingLifeHours < 5000 || spindleLifePercentage < 0.5 || 
-                     wear > initialDiameter * 0.2) ? 1 : 0;
-        historicalData.add(new DataPoint(totalVibration, tempRise + 20.0, avgLoad, 
-                                         bearingLifeHours, spindleLifePercentage, wear, label));
-
         results.append("\n");
         return results.toString();
     }
 
-    private String generateComprehensiveReport(SpindleParameters params, List<SimulationScenario> scenarios) {
+    private String generateComprehensiveReport(SpindleConfiguration params, List<ScenarioResult> scenarioResults) {
         StringBuilder report = new StringBuilder();
         report.append("=== Comprehensive Analysis ===\n\n");
 
-        report.append("Spindle Type: ").append(params.getSpindleType()).append("\n");
+        report.append("Spindle Type: ").append(params.spindleType()).append("\n");
         report.append(evaluateSpindleType(params)).append("\n\n");
 
         // Summarize key metrics across scenarios
         report.append("Summary Across Scenarios:\n");
-        for (SimulationScenario scenario : scenarios) {
-            SpindleParameters adjustedParams = new SpindleParameters();
-            adjustedParams.setSpindleType(params.getSpindleType());
-            adjustedParams.setPowerRating(params.getPowerRating());
-            adjustedParams.setMaxSpeed((int) (params.getMaxSpeed() * scenario.speedFactor));
-            adjustedParams.setWheelDiameter(params.getWheelDiameter());
-            adjustedParams.setBearingType(params.getBearingType());
-            adjustedParams.setBearingPreload(params.getBearingPreload());
-            adjustedParams.setCoolingType(params.getCoolingType());
-            adjustedParams.setLubricationType(params.getLubricationType());
-            adjustedParams.setToolInterface(params.getToolInterface());
-            adjustedParams.setAlignmentTolerance(params.getAlignmentTolerance());
-
-            List<Double> loadProfile = generateDynamicLoadProfile(adjustedParams, scenario.duration, scenario.loadFactor);
-            double vibration = estimateVibration(adjustedParams);
-            double tempRise = estimateTemperatureRise(adjustedParams);
-            double bearingLife = calculateBearingL10Life(adjustedParams, loadProfile);
-            double spindleLife = calculateSpindleFatigueLife(adjustedParams, loadProfile);
-            double wheelWear = calculateWheelWear(adjustedParams, loadProfile, scenario.duration);
-            double wearVibration = calculateWearInducedVibration(adjustedParams, wheelWear);
-
-            report.append(String.format("Scenario: %s\n", scenario.name));
-            report.append(String.format(" - Vibration: %.2f mm/s\n", vibration + wearVibration));
-            report.append(String.format(" - Temperature Rise: %.1f°C\n", tempRise));
-            report.append(String.format(" - Bearing Life: %.0f hours\n", bearingLife));
-            report.append(String.format(" - Spindle Life: %.1f%%\n", spindleLife * 100));
-            report.append(String.format(" - Wheel Wear: %.1f mm\n", wheelWear));
+        for (ScenarioResult result : scenarioResults) {
+            report.append(String.format("Scenario: %s\n", result.getScenarioName()));
+            report.append(String.format(" - Vibration: %.2f mm/s\n", result.getTotalVibration()));
+            report.append(String.format(" - Temperature Rise: %.1f°C\n", result.getTemperatureRise()));
+            report.append(String.format(" - Bearing Life: %.0f hours\n", result.getBearingLifeHours()));
+            report.append(String.format(" - Spindle Life: %.1f%%\n", result.getSpindleLife() * 100));
+            report.append(String.format(" - Wheel Wear: %.1f mm\n", result.getWheelWear()));
             report.append("\n");
         }
 
@@ -241,29 +312,10 @@ public class SpindleSimulation {
         boolean highVibration = false;
         boolean highTemp = false;
         boolean lowBearingLife = false;
-        for (SimulationScenario scenario : scenarios) {
-            SpindleParameters adjustedParams = new SpindleParameters();
-            adjustedParams.setSpindleType(params.getSpindleType());
-            adjustedParams.setPowerRating(params.getPowerRating());
-            adjustedParams.setMaxSpeed((int) (params.getMaxSpeed() * scenario.speedFactor));
-            adjustedParams.setWheelDiameter(params.getWheelDiameter());
-            adjustedParams.setBearingType(params.getBearingType());
-            adjustedParams.setBearingPreload(params.getBearingPreload());
-            adjustedParams.setCoolingType(params.getCoolingType());
-            adjustedParams.setLubricationType(params.getLubricationType());
-            adjustedParams.setToolInterface(params.getToolInterface());
-            adjustedParams.setAlignmentTolerance(params.getAlignmentTolerance());
-
-            List<Double> loadProfile = generateDynamicLoadProfile(adjustedParams, scenario.duration, scenario.loadFactor);
-            double vibration = estimateVibration(adjustedParams);
-            double tempRise = estimateTemperatureRise(adjustedParams);
-            double bearingLife = calculateBearingL10Life(adjustedParams, loadProfile);
-            double wheelWear = calculateWheelWear(adjustedParams, loadProfile, scenario.duration);
-            double wearVibration = calculateWearInducedVibration(adjustedParams, wheelWear);
-
-            if (vibration + wearVibration > 1.0) highVibration = true;
-            if (tempRise > 30) highTemp = true;
-            if (bearingLife < 20000) lowBearingLife = true;
+        for (ScenarioResult result : scenarioResults) {
+            if (result.getTotalVibration() > 1.0) highVibration = true;
+            if (result.getTemperatureRise() > 30) highTemp = true;
+            if (result.getBearingLifeHours() < 20000) lowBearingLife = true;
         }
 
         if (highVibration) {
@@ -282,64 +334,111 @@ public class SpindleSimulation {
         return report.toString();
     }
 
-    public String simulateTimeBased(SpindleParameters params, double duration) {
+    // Monte Carlo mode: repeats each default scenario with independent load spikes
+    public String simulateMonteCarlo(SpindleParameters params, int maxReplications, double tolerance, long seed) {
         String validationResult = validateParameters(params);
         if (!validationResult.equals("Valid")) {
             return validationResult;
         }
+        ForkJoinPool pool = executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+        MonteCarloSimulation monteCarlo = new MonteCarloSimulation(this, pool);
+        return monteCarlo.renderReport(monteCarlo.run(params, defaultScenarios(), maxReplications, tolerance, seed));
+    }
 
-        StringBuilder results = new StringBuilder();
-        results.append(String.format("=== Time-Based Spindle Simulation (Duration: %.1f s) ===\n\n", duration));
+    public SimulationResult simulateTimeBased(SpindleParameters params, double duration) {
+        return simulateTimeBased(params, duration, randomSeed());
+    }
 
-        double timeStep = 0.1;
-        int steps = (int) (duration / timeStep);
-        List<Double> vibrationHistory = new ArrayList<>();
-        List<Double> temperatureHistory = new ArrayList<>();
-        List<Double> loadProfile = generateDynamicLoadProfile(params, duration, 1.0);
+    public SimulationResult simulateTimeBased(SpindleParameters params, double duration, long seed) {
+        String validationResult = validateParameters(params);
+        if (!validationResult.equals("Valid")) {
+            return SimulationResult.invalid(validationResult);
+        }
+        return runTimeBased(params.build(), generateLoadProfile(params, duration, 1.0, seed), duration, seed);
+    }
+
+    public SimulationResult simulateTimeBased(SpindleParameters params, LoadProfile loadProfile) {
+        return simulateTimeBased(params, loadProfile, loadProfile.getDuration());
+    }
+
+    // The result's seed is 0 because the caller supplied the load profile
+    public SimulationResult simulateTimeBased(SpindleParameters params, LoadProfile loadProfile, double duration) {
+        String validationResult = validateParameters(params);
+        if (!validationResult.equals("Valid")) {
+            return SimulationResult.invalid(validationResult);
+        }
+        return runTimeBased(params.build(), loadProfile, duration, 0L);
+    }
+
+    private SimulationResult runTimeBased(SpindleConfiguration params, LoadProfile loadProfile, double duration,
+                                          long seed) {
+        double timeStep = loadProfile.getTimeStep();
+        int steps = loadProfile.size();
+        double[] vibrationHistory = new double[steps];
+        double[] temperatureHistory = new double[steps];
 
         double currentTemp = 20.0;
         for (int i = 0; i < steps; i++) {
             double load = loadProfile.get(i);
-            double vibration = estimateVibration(params, load);
             currentTemp += estimateTemperatureRise(params, load) * timeStep / 10.0;
-            vibrationHistory.add(vibration);
-            temperatureHistory.add(currentTemp);
-
-            if (i % 10 == 0) {
-                results.append(String.format("t=%.1f s: Vibration=%.2f mm/s, Temperature=%.1f°C, Load=%.0f N\n",
-                    i * timeStep, vibration, currentTemp, load));
-            }
+            vibrationHistory[i] = estimateVibration(params, load);
+            temperatureHistory[i] = currentTemp;
         }
 
-        double avgVibration = vibrationHistory.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double maxVibration = vibrationHistory.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-        double avgTemp = temperatureHistory.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double maxTemp = temperatureHistory.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
+        LoadProfile vibrations = LoadProfile.wrap(vibrationHistory, timeStep);
+        LoadProfile temperatures = LoadProfile.wrap(temperatureHistory, timeStep);
+        ProfileMetrics metrics = analyzeLoadProfile(params, loadProfile, 1.0);
+        double requiredPower = calculateRequiredPower(params.wheelDiameter(), params.maxSpeed());
+        double bearingLifeHours = calculateBearingL10Life(params, metrics);
+        double spindleLifePercentage = calculateSpindleFatigueLife(params, metrics);
+        double wear = calculateWheelWear(params, metrics, duration);
+        double wearVibration = calculateWearInducedVibration(params, wear);
+        double avgLoad = metrics.average(estimateLoad(params));
+        int maintenanceNeeded = predictAndRecordMaintenance(vibrations.max(0.0) + wearVibration, temperatures.max(0.0),
+                                                            avgLoad, bearingLifeHours, spindleLifePercentage, wear,
+                                                            params.wheelDiameter());
+
+        TimeBasedResult result = new TimeBasedResult(params, duration, loadProfile, vibrations, temperatures, metrics,
+            requiredPower, bearingLifeHours, spindleLifePercentage, wear, wearVibration, avgLoad, maintenanceNeeded);
+        return SimulationResult.ofTimeBased(seed, result, () -> renderTimeBasedReport(result));
+    }
+
+    private String renderTimeBasedReport(TimeBasedResult result) {
+        StringBuilder results = new StringBuilder();
+        results.append(String.format("=== Time-Based Spindle Simulation (Duration: %.1f s) ===\n\n", result.getDuration()));
+
+        LoadProfile loadProfile = result.getLoadProfile();
+        LoadProfile vibrations = result.getVibrations();
+        LoadProfile temperatures = result.getTemperatures();
+        double timeStep = loadProfile.getTimeStep();
+        for (int i = 0; i < loadProfile.size(); i += 10) {
+            results.append(String.format("t=%.1f s: Vibration=%.2f mm/s, Temperature=%.1f°C, Load=%.0f N\n",
+                i * timeStep, vibrations.get(i), temperatures.get(i), loadProfile.get(i)));
+        }
 
         results.append("\nSummary:\n");
-        results.append(String.format("Average Vibration: %.2f mm/s\n", avgVibration));
-        results.append(String.format("Maximum Vibration: %.2f mm/s\n", maxVibration));
-        results.append(String.format("Average Temperature: %.1f°C\n", avgTemp));
-        results.append(String.format("Maximum Temperature: %.1f°C\n", maxTemp));
+        results.append(String.format("Average Vibration: %.2f mm/s\n", result.getAverageVibration()));
+        results.append(String.format("Maximum Vibration: %.2f mm/s\n", result.getMaxVibration()));
+        results.append(String.format("Average Temperature: %.1f°C\n", result.getAverageTemperature()));
+        results.append(String.format("Maximum Temperature: %.1f°C\n", result.getMaxTemperature()));
 
         results.append("\nFatigue Analysis:\n");
-        double bearingLifeHours = calculateBearingL10Life(params, loadProfile);
+        double bearingLifeHours = result.getBearingLifeHours();
         results.append(String.format("Bearing L10 Life: %.0f hours\n", bearingLifeHours));
         results.append(bearingLifeHours >= 20000 ? 
             "Bearing life acceptable\n" : 
             "Warning: Short bearing life predicted\n");
 
-        double spindleLifePercentage = calculateSpindleFatigueLife(params, loadProfile);
+        double spindleLifePercentage = result.getSpindleLife();
         results.append(String.format("Spindle Shaft Remaining Life: %.1f%%\n", spindleLifePercentage * 100));
         results.append(spindleLifePercentage >= 0.5 ? 
             "Spindle shaft life acceptable\n" : 
             "Warning: Spindle shaft may fail prematurely\n");
 
         results.append("\nGrinding Wheel Wear Analysis:\n");
-        double initialDiameter = params.getWheelDiameter();
-        double wear = calculateWheelWear(params, loadProfile, duration);
-        double remainingDiameter = initialDiameter - wear;
-        double wearVibration = calculateWearInducedVibration(params, wear);
+        double initialDiameter = result.getParams().wheelDiameter();
+        double remainingDiameter = initialDiameter - result.getWheelWear();
+        double wearVibration = result.getWearVibration();
         results.append(String.format("Initial Wheel Diameter: %.1f mm\n", initialDiameter));
         results.append(String.format("Remaining Wheel Diameter: %.1f mm\n", remainingDiameter));
         results.append(String.format("Wear-Induced Vibration: %.2f mm/s\n", wearVibration));
@@ -351,51 +450,138 @@ public class SpindleSimulation {
             "Warning: Increased vibration due to wheel imbalance\n");
 
         results.append("\nMaintenance Prediction:\n");
-        if (historicalData.isEmpty()) {
-            generateHistoricalData();
-        }
-        double totalVibration = maxVibration + wearVibration;
-        double avgLoad = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(estimateLoad(params));
-        int maintenanceNeeded = predictMaintenance(totalVibration, maxTemp, avgLoad, 
-                                                  bearingLifeHours, spindleLifePercentage, wear);
-        results.append(maintenanceNeeded == 1 ? 
+        results.append(result.getMaintenanceNeeded() == 1 ? 
             "Maintenance Needed: Yes (e.g., bearing replacement, wheel dressing)\n" : 
             "Maintenance Needed: No\n");
 
-        int label = (totalVibration > 1.0 || bearingLifeHours < 5000 || spindleLifePercentage < 0.5 || 
-                     wear > initialDiameter * 0.2) ? 1 : 0;
-        historicalData.add(new DataPoint(totalVibration, maxTemp, avgLoad, 
-                                         bearingLifeHours, spindleLifePercentage, wear, label));
-
         return results.toString();
     }
 
-    private String validateParameters(SpindleParameters params) {
-        if (params.getPowerRating() < 0.5 || params.getPowerRating() > 50.0) {
+    // Streaming time-based run: loads are generated step by step and only running statistics are kept, so
+    // memory stays constant whatever the duration. A snapshot goes to the consumer every snapshotInterval seconds.
+    public TimeBasedSummary simulateTimeBasedStreaming(SpindleParameters params, double duration, long seed,
+                                                       double snapshotInterval, Consumer<TimeSnapshot> snapshots) {
+        String validationResult = validateParameters(params);
+        if (!validationResult.equals("Valid")) {
+            throw new IllegalArgumentException(validationResult.trim());
+        }
+        return simulateTimeBasedStreaming(params.build(), duration, seed, snapshotInterval, snapshots);
+    }
+
+    private TimeBasedSummary simulateTimeBasedStreaming(SpindleConfiguration params, double duration, long seed,
+                                                        double snapshotInterval, Consumer<TimeSnapshot> snapshots) {
+        double timeStep = 0.1;
+        int steps = (int) (duration / timeStep);
+        long snapshotSteps = Math.max(1, Math.round(snapshotInterval / timeStep));
+        double baseLoad = estimateLoad(params);
+        double spikeThreshold = spikeThreshold(params, 1.0);
+        double[] factors = LoadVariationTable.factors(LOAD_PERIOD, timeStep, LOAD_VARIATION);
+        SplittableGenerator generator = newGenerator(seed);
+        RandomGenerator chunkGenerator = null;
+
+        RunningStatistics loads = new RunningStatistics();
+        RunningStatistics vibrations = new RunningStatistics();
+        RunningStatistics temperatures = new RunningStatistics();
+        double sumSquares = 0.0;
+        double damage = 0.0;
+        int spikes = 0;
+
+        double currentTemp = 20.0;
+        for (int i = 0; i < steps; i++) {
+            // Same per-chunk streams as generateLoadProfile, so a seed gives the same loads on both paths
+            if (i % RANDOM_CHUNK_SIZE == 0) {
+                chunkGenerator = generator.split();
+            }
+            double time = i * timeStep;
+            double factor = factors != null ? factors[i % factors.length]
+                                            : LoadVariationTable.factor(time, LOAD_PERIOD, LOAD_VARIATION);
+            double load = Math.max(0, baseLoad * factor);
+            if (chunkGenerator.nextDouble() < SPIKE_PROBABILITY) {
+                load *= SPIKE_FACTOR;
+            }
+
+            double vibration = estimateVibration(params, load);
+            currentTemp += estimateTemperatureRise(params, load) * timeStep / 10.0;
+            loads.add(load);
+            vibrations.add(vibration);
+            temperatures.add(currentTemp);
+            sumSquares += load * load;
+            damage += cycleDamage(load);
+            if (load > spikeThreshold) {
+                spikes++;
+            }
+
+            if (snapshots != null && i % snapshotSteps == 0) {
+                snapshots.accept(new TimeSnapshot(time, load, vibration, currentTemp, vibrations.getMean(),
+                    vibrations.getMax(), temperatures.getMean(), temperatures.getMax()));
+            }
+        }
+
+        ProfileMetrics metrics = steps == 0 ? ProfileMetrics.empty()
+            : new ProfileMetrics(steps, loads.getMean(), loads.getMax(), damage, spikes, Math.sqrt(sumSquares / steps));
+        double bearingLifeHours = calculateBearingL10Life(params, metrics);
+        double spindleLifePercentage = calculateSpindleFatigueLife(params, metrics);
+        double wear = calculateWheelWear(params, metrics, duration);
+        double wearVibration = calculateWearInducedVibration(params, wear);
+        int maintenanceNeeded = predictAndRecordMaintenance(vibrations.max(0.0) + wearVibration,
+            temperatures.max(0.0), metrics.average(estimateLoad(params)), bearingLifeHours, spindleLifePercentage,
+            wear, params.wheelDiameter());
+
+        return new TimeBasedSummary(duration, steps, loads, vibrations, temperatures, metrics, bearingLifeHours,
+            spindleLifePercentage, wear, wearVibration, maintenanceNeeded);
+    }
+
+    private int predictAndRecordMaintenance(double totalVibration, double temperature, double avgLoad,
+                                            double bearingLifeHours, double spindleLife, double wear,
+                                            double wheelDiameter) {
+        int maintenanceNeeded = predictMaintenance(totalVibration, temperature, avgLoad,
+                                                   bearingLifeHours, spindleLife, wear);
+        int label = maintenanceLabel(totalVibration, bearingLifeHours, spindleLife, wear, wheelDiameter);
+        maintenancePredictor.learn(totalVibration, temperature, avgLoad, bearingLifeHours, spindleLife, wear, label);
+        return maintenanceNeeded;
+    }
+
+    // Label recorded in the maintenance history: 1 = maintenance needed, 0 = no maintenance
+    static int maintenanceLabel(double totalVibration, double bearingLifeHours, double spindleLife, double wear,
+                                double wheelDiameter) {
+        return (totalVibration > 1.0 || bearingLifeHours < 5000 || spindleLife < 0.5 ||
+                wear > wheelDiameter * 0.2) ? 1 : 0;
+    }
+
+    String validateParameters(SpindleParameters params) {
+        try {
+            return validateParameters(params.build());
+        } catch (IllegalArgumentException e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
+
+    String validateParameters(SpindleConfiguration params) {
+        if (params.powerRating() < 0.5 || params.powerRating() > 50.0) {
             return "Error: Power rating must be between 0.5 and 50 kW\n";
         }
-        if (params.getMaxSpeed() < 1000 || params.getMaxSpeed() > 30000) {
+        if (params.maxSpeed() < 1000 || params.maxSpeed() > 30000) {
             return "Error: Max speed must be between 1000 and 30000 RPM\n";
         }
-        if (params.getWheelDiameter() < 50 || params.getWheelDiameter() > 1000) {
+        if (params.wheelDiameter() < 50 || params.wheelDiameter() > 1000) {
             return "Error: Wheel diameter must be between 50 and 1000 mm\n";
         }
-        if (params.getBearingPreload() < 100 || params.getBearingPreload() > 2000) {
+        if (params.bearingPreload() < 100 || params.bearingPreload() > 2000) {
             return "Error: Bearing preload must be between 100 and 2000 N\n";
         }
-        if (params.getAlignmentTolerance() < 0.0001 || params.getAlignmentTolerance() > 0.01) {
+        if (params.alignmentTolerance() < 0.0001 || params.alignmentTolerance() > 0.01) {
             return "Error: Alignment tolerance must be between 0.0001 and 0.01 mm\n";
         }
         return "Valid";
     }
 
-    private String evaluateSpindleType(SpindleParameters params) {
-        String type = params.getSpindleType();
-        if (type.equals("Motorized") && params.getMaxSpeed() > 15000) {
+    private String evaluateSpindleType(SpindleConfiguration params) {
+        SpindleType type = params.spindleType();
+        if (type == SpindleType.MOTORIZED && params.maxSpeed() > 15000) {
             return "Motorized spindle optimal for high-speed precision grinding";
-        } else if (type.equals("Belt-Driven") && params.getMaxSpeed() <= 8000) {
+        } else if (type == SpindleType.BELT_DRIVEN && params.maxSpeed() <= 8000) {
             return "Belt-driven spindle cost-effective for high-torque applications";
-        } else if (type.equals("Direct-Drive")) {
+        } else if (type == SpindleType.DIRECT_DRIVE) {
             return "Direct-drive spindle balances speed and torque effectively";
         }
         return "Spindle type may not be optimal for specified parameters";
@@ -406,26 +592,34 @@ public class SpindleSimulation {
         return (wheelDiameter / 1000.0) * (speed / 1000.0) * 2.5 * materialFactor;
     }
 
-    private String evaluateBearingPerformance(SpindleParameters params) {
-        if (params.getBearingType().equals("Hybrid Ceramic") && params.getMaxSpeed() > 10000) {
+    private String evaluateBearingPerformance(SpindleConfiguration params) {
+        if (params.bearingType() == BearingType.HYBRID_CERAMIC && params.maxSpeed() > 10000) {
             return "Hybrid ceramic bearings optimal for high-speed, low-friction operation";
-        } else if (params.getBearingType().equals("Angular Contact")) {
+        } else if (params.bearingType() == BearingType.ANGULAR_CONTACT) {
             return "Angular contact bearings provide excellent rigidity for medium speeds";
         }
         return "Bearing type may need review for optimal performance";
     }
 
     public double estimateTemperatureRise(SpindleParameters params) {
-        double baseTemp = params.getCoolingType().equals("Liquid") ? 18.0 : 22.0;
-        double speedFactor = params.getMaxSpeed() / 10000.0;
-        double preloadFactor = params.getBearingPreload() / 500.0;
-        return baseTemp + (speedFactor * 5.0) + (preloadFactor * 2.0);
+        return estimateTemperatureRise(params.build());
     }
 
     public double estimateTemperatureRise(SpindleParameters params, double load) {
-        double baseTemp = params.getCoolingType().equals("Liquid") ? 18.0 : 22.0;
-        double speedFactor = params.getMaxSpeed() / 10000.0;
-        double preloadFactor = params.getBearingPreload() / 500.0;
+        return estimateTemperatureRise(params.build(), load);
+    }
+
+    public double estimateTemperatureRise(SpindleConfiguration params) {
+        double baseTemp = params.coolingType().getBaseTemperatureRise();
+        double speedFactor = params.maxSpeed() / 10000.0;
+        double preloadFactor = params.bearingPreload() / 500.0;
+        return baseTemp + (speedFactor * 5.0) + (preloadFactor * 2.0);
+    }
+
+    public double estimateTemperatureRise(SpindleConfiguration params, double load) {
+        double baseTemp = params.coolingType().getBaseTemperatureRise();
+        double speedFactor = params.maxSpeed() / 10000.0;
+        double preloadFactor = params.bearingPreload() / 500.0;
         double loadFactor = load / 1000.0;
         return baseTemp + (speedFactor * 5.0) + (preloadFactor * 2.0) + (loadFactor * 2.0);
     }
@@ -437,61 +631,136 @@ public class SpindleSimulation {
     }
 
     public double estimateVibration(SpindleParameters params) {
-        double baseVibration = params.getBearingType().equals("Hybrid Ceramic") ? 0.4 : 0.6;
-        double speedFactor = params.getMaxSpeed() / 10000.0;
-        double alignmentFactor = params.getAlignmentTolerance() > 0.002 ? 1.2 : 1.0;
-        double toolFactor = params.getToolInterface().equals("HSK") ? 0.9 : 1.0;
-        return baseVibration * speedFactor * alignmentFactor * toolFactor;
+        return estimateVibration(params.build());
     }
 
     public double estimateVibration(SpindleParameters params, double load) {
-        double baseVibration = params.getBearingType().equals("Hybrid Ceramic") ? 0.4 : 0.6;
-        double speedFactor = params.getMaxSpeed() / 10000.0;
-        double alignmentFactor = params.getAlignmentTolerance() > 0.002 ? 1.2 : 1.0;
-        double toolFactor = params.getToolInterface().equals("HSK") ? 0.9 : 1.0;
+        return estimateVibration(params.build(), load);
+    }
+
+    public double estimateVibration(SpindleConfiguration params) {
+        double baseVibration = params.bearingType().getBaseVibration();
+        double speedFactor = params.maxSpeed() / 10000.0;
+        double alignmentFactor = params.alignmentFactor();
+        double toolFactor = params.toolInterface().getVibrationFactor();
+        return baseVibration * speedFactor * alignmentFactor * toolFactor;
+    }
+
+    public double estimateVibration(SpindleConfiguration params, double load) {
+        double baseVibration = params.bearingType().getBaseVibration();
+        double speedFactor = params.maxSpeed() / 10000.0;
+        double alignmentFactor = params.alignmentFactor();
+        double toolFactor = params.toolInterface().getVibrationFactor();
         double loadFactor = 1.0 + (load / 1000.0) * 0.5;
         return baseVibration * speedFactor * alignmentFactor * toolFactor * loadFactor;
     }
 
-    private double calculateResonanceFrequency(SpindleParameters params) {
-        double stiffness = params.getBearingType().equals("Hybrid Ceramic") ? 1.5e8 : 1.2e8;
-        double mass = params.getWheelDiameter() / 1000.0 * 2.0;
+    public double calculateResonanceFrequency(SpindleConfiguration params) {
+        double stiffness = params.bearingType().getStiffness();
+        double mass = params.wheelDiameter() / 1000.0 * 2.0;
         return Math.sqrt(stiffness / mass) / (2 * Math.PI);
     }
 
     public double estimateLoad(SpindleParameters params) {
-        return (params.getWheelDiameter() / 1000.0) * (params.getMaxSpeed() / 1000.0) * 100.0;
+        return estimateLoad(params.getWheelDiameter(), params.getMaxSpeed());
+    }
+
+    public double estimateLoad(SpindleConfiguration params) {
+        return estimateLoad(params.wheelDiameter(), params.maxSpeed());
+    }
+
+    private double estimateLoad(double wheelDiameter, int maxSpeed) {
+        return (wheelDiameter / 1000.0) * (maxSpeed / 1000.0) * 100.0;
     }
 
     public List<Double> generateDynamicLoadProfile(SpindleParameters params, double duration, double loadFactor) {
-        List<Double> loadProfile = new ArrayList<>();
-        double baseLoad = estimateLoad(params) * loadFactor;
+        return generateLoadProfile(params, duration, loadFactor).toList();
+    }
+
+    public LoadProfile generateLoadProfile(SpindleParameters params, double duration, double loadFactor) {
+        return generateLoadProfile(params, duration, loadFactor, randomSeed());
+    }
+
+    public LoadProfile generateLoadProfile(SpindleParameters params, double duration, double loadFactor, long seed) {
+        return generateLoadProfile(params, duration, loadFactor, newGenerator(seed));
+    }
+
+    public LoadProfile generateLoadProfile(SpindleParameters params, double duration, double loadFactor,
+                                           SplittableGenerator generator) {
+        return generateLoadProfile(estimateLoad(params) * loadFactor, duration, generator);
+    }
+
+    LoadProfile generateLoadProfile(SpindleConfiguration params, double duration, double loadFactor,
+                                    SplittableGenerator generator) {
+        return generateLoadProfile(estimateLoad(params) * loadFactor, duration, generator);
+    }
+
+    private LoadProfile generateLoadProfile(double baseLoad, double duration, SplittableGenerator generator) {
+        double timeStep = 0.1;
+        double[] loadProfile = generateLoadEnvelope(baseLoad, duration);
+        int steps = loadProfile.length;
+
+        // A fresh stream per chunk keeps the samples independent of how the chunks are filled
+        for (int chunkStart = 0; chunkStart < steps; chunkStart += RANDOM_CHUNK_SIZE) {
+            RandomGenerator chunkGenerator = generator.split();
+            int chunkEnd = Math.min(steps, chunkStart + RANDOM_CHUNK_SIZE);
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                if (chunkGenerator.nextDouble() < SPIKE_PROBABILITY) {
+                    loadProfile[i] *= SPIKE_FACTOR;
+                }
+            }
+        }
+        return LoadProfile.wrap(loadProfile, timeStep);
+    }
+
+    // Deterministic part of the load profile: base load with its sinusoidal variation, before spikes
+    double[] generateLoadEnvelope(SpindleConfiguration params, double duration, double loadFactor) {
+        return generateLoadEnvelope(estimateLoad(params) * loadFactor, duration);
+    }
+
+    private double[] generateLoadEnvelope(double baseLoad, double duration) {
         double timeStep = 0.1;
         int steps = (int) (duration / timeStep);
+        double[] envelope = new double[steps];
+        double[] factors = LoadVariationTable.factors(LOAD_PERIOD, timeStep, LOAD_VARIATION);
 
-        for (int i = 0; i < steps; i++) {
-            double time = i * timeStep;
-            double variation = Math.sin(2 * Math.PI * time / 2.0) * 0.3;
-            double load = baseLoad * (1.0 + variation);
-            if (Math.random() < 0.1) {
-                load *= 1.5;
+        if (factors == null) {
+            for (int i = 0; i < steps; i++) {
+                envelope[i] = Math.max(0, baseLoad * LoadVariationTable.factor(i * timeStep, LOAD_PERIOD, LOAD_VARIATION));
             }
-            loadProfile.add(Math.max(0, load));
+            return envelope;
+        }
+
+        // Fill one period from the table, then keep doubling the filled prefix with array copies
+        int period = Math.min(steps, factors.length);
+        for (int i = 0; i < period; i++) {
+            envelope[i] = Math.max(0, baseLoad * factors[i]);
         }
-        return loadProfile;
+        for (int filled = period; filled < steps; filled *= 2) {
+            System.arraycopy(envelope, 0, envelope, filled, Math.min(filled, steps - filled));
+        }
+        return envelope;
+    }
+
+    // Single fused pass over the profile; samples above the sinusoid envelope are counted as spikes
+    public ProfileMetrics analyzeLoadProfile(SpindleParameters params, LoadProfile loadProfile, double loadFactor) {
+        return ProfileMetrics.of(loadProfile, estimateLoad(params) * loadFactor * (1.0 + LOAD_VARIATION));
+    }
+
+    public ProfileMetrics analyzeLoadProfile(SpindleConfiguration params, LoadProfile loadProfile, double loadFactor) {
+        return ProfileMetrics.of(loadProfile, spikeThreshold(params, loadFactor));
+    }
+
+    double spikeThreshold(SpindleConfiguration params, double loadFactor) {
+        return estimateLoad(params) * loadFactor * (1.0 + LOAD_VARIATION);
     }
 
-    private String simulateTrialRuns(SpindleParameters params) {
+    private String simulateTrialRuns(SpindleConfiguration params) {
         StringBuilder trials = new StringBuilder();
-        int[] speeds = {params.getMaxSpeed() / 2, params.getMaxSpeed() * 3 / 4, params.getMaxSpeed()};
+        int[] speeds = {params.maxSpeed() / 2, params.maxSpeed() * 3 / 4, params.maxSpeed()};
         for (int speed : speeds) {
-            double power = calculateRequiredPower(params.getWheelDiameter(), speed);
-            double vibration = estimateVibration(new SpindleParameters() {{
-                setBearingType(params.getBearingType());
-                setMaxSpeed(speed);
-                setAlignmentTolerance(params.getAlignmentTolerance());
-                setToolInterface(params.getToolInterface());
-            }});
+            double power = calculateRequiredPower(params.wheelDiameter(), speed);
+            double vibration = estimateVibration(params.withMaxSpeed(speed));
             trials.append(String.format("Trial at %d RPM: Power = %.2f kW, Vibration = %.2f mm/s\n", 
                 speed, power, vibration));
         }
@@ -499,72 +768,155 @@ public class SpindleSimulation {
     }
 
     public double calculateBearingL10Life(SpindleParameters params, List<Double> loadProfile) {
-        double C = params.getBearingType().equals("Hybrid Ceramic") ? 50.0 : 40.0;
-        double avgLoad = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(estimateLoad(params));
-        double P = (avgLoad + params.getBearingPreload()) / 1000.0;
-        double lifeAdjustmentFactor = 1.0;
-        if (params.getLubricationType().equals("Grease")) {
-            lifeAdjustmentFactor *= 0.8;
-        } else if (params.getLubricationType().equals("Oil-Air")) {
-            lifeAdjustmentFactor *= 1.2;
-        }
-        if (params.getCoolingType().equals("Liquid")) {
-            lifeAdjustmentFactor *= 1.1;
-        }
+        return calculateBearingL10Life(params, LoadProfile.of(loadProfile, 0.1));
+    }
+
+    public double calculateBearingL10Life(SpindleParameters params, LoadProfile loadProfile) {
+        return calculateBearingL10Life(params.build(), loadProfile);
+    }
+
+    public double calculateBearingL10Life(SpindleParameters params, ProfileMetrics metrics) {
+        return calculateBearingL10Life(params.build(), metrics);
+    }
+
+    public double calculateBearingL10Life(SpindleConfiguration params, LoadProfile loadProfile) {
+        return bearingL10Life(params, loadProfile.average(estimateLoad(params)));
+    }
+
+    public double calculateBearingL10Life(SpindleConfiguration params, ProfileMetrics metrics) {
+        return bearingL10Life(params, metrics.average(estimateLoad(params)));
+    }
+
+    private double bearingL10Life(SpindleConfiguration params, double avgLoad) {
+        double C = params.bearingType().getDynamicCapacity();
+        double P = (avgLoad + params.bearingPreload()) / 1000.0;
+        double lifeAdjustmentFactor = params.lifeAdjustmentFactor();
         double L10 = Math.pow(C / P, 3) * 1_000_000;
-        double L10h = L10 / (60.0 * params.getMaxSpeed()) * lifeAdjustmentFactor;
+        double L10h = L10 / (60.0 * params.maxSpeed()) * lifeAdjustmentFactor;
         return Math.max(1000, L10h);
     }
 
     public double calculateSpindleFatigueLife(SpindleParameters params, List<Double> loadProfile) {
-        double a = 20.0;
-        double b = 6.0;
-        double ultimateStrength = 800e6;
-        double shaftDiameter = 0.05;
-        double sectionModulus = Math.PI * Math.pow(shaftDiameter, 3) / 32;
-        double totalDamage = 0.0;
-
-        for (double load : loadProfile) {
-            double moment = load * 0.1;
-            double stress = moment / sectionModulus;
-            double logN = a - b * Math.log10(stress / 1e6);
-            double N = Math.pow(10, logN);
-            double cycles = 1.0;
-            totalDamage += cycles / N;
+        return calculateSpindleFatigueLife(params, LoadProfile.of(loadProfile, 0.1));
+    }
+
+    public double calculateSpindleFatigueLife(SpindleParameters params, LoadProfile loadProfile) {
+        return remainingFatigueLife(minerDamage(loadProfile.samples()));
+    }
+
+    public double calculateSpindleFatigueLife(SpindleParameters params, ProfileMetrics metrics) {
+        return remainingFatigueLife(metrics.minerDamage());
+    }
+
+    public double calculateSpindleFatigueLife(SpindleConfiguration params, ProfileMetrics metrics) {
+        return remainingFatigueLife(metrics.minerDamage());
+    }
+
+    // Miner's rule contribution of one load cycle on the shaft S-N curve; the power law is
+    // evaluated as (load^2)^3, which relies on the S-N exponent SN_CURVE_B being 6
+    static double cycleDamage(double load) {
+        double squared = load * load;
+        return CYCLE_DAMAGE_COEFFICIENT * (squared * squared * squared);
+    }
+
+    // Miner damage sum over a whole profile; four independent accumulators let the multiplications
+    // of neighbouring samples overlap instead of waiting on a single running sum
+    static double minerDamage(double[] loads) {
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        double sum2 = 0.0;
+        double sum3 = 0.0;
+        int i = 0;
+        for (int limit = loads.length & ~3; i < limit; i += 4) {
+            double squared0 = loads[i] * loads[i];
+            double squared1 = loads[i + 1] * loads[i + 1];
+            double squared2 = loads[i + 2] * loads[i + 2];
+            double squared3 = loads[i + 3] * loads[i + 3];
+            sum0 += squared0 * squared0 * squared0;
+            sum1 += squared1 * squared1 * squared1;
+            sum2 += squared2 * squared2 * squared2;
+            sum3 += squared3 * squared3 * squared3;
+        }
+        for (; i < loads.length; i++) {
+            double squared = loads[i] * loads[i];
+            sum0 += squared * squared * squared;
         }
+        return CYCLE_DAMAGE_COEFFICIENT * ((sum0 + sum1) + (sum2 + sum3));
+    }
 
+    private double remainingFatigueLife(double totalDamage) {
         double remainingLife = 1.0 - totalDamage;
         return Math.max(0.0, Math.min(1.0, remainingLife));
     }
 
     public double calculateWheelWear(SpindleParameters params, List<Double> loadProfile, double duration) {
+        return calculateWheelWear(params, LoadProfile.of(loadProfile, 0.1), duration);
+    }
+
+    public double calculateWheelWear(SpindleParameters params, LoadProfile loadProfile, double duration) {
+        return wheelWear(params.getWheelDiameter(), params.getMaxSpeed(), loadProfile.average(estimateLoad(params)), duration);
+    }
+
+    public double calculateWheelWear(SpindleParameters params, ProfileMetrics metrics, double duration) {
+        return wheelWear(params.getWheelDiameter(), params.getMaxSpeed(), metrics.average(estimateLoad(params)), duration);
+    }
+
+    public double calculateWheelWear(SpindleConfiguration params, ProfileMetrics metrics, double duration) {
+        return wheelWear(params.wheelDiameter(), params.maxSpeed(), metrics.average(estimateLoad(params)), duration);
+    }
+
+    private double wheelWear(double initialDiameter, int maxSpeed, double avgLoad, double duration) {
         double wearCoefficient = 1e-6;
-        double wheelDiameter = params.getWheelDiameter() / 1000.0;
+        double wheelDiameter = initialDiameter / 1000.0;
         double wheelThickness = 0.02;
-        double avgLoad = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(estimateLoad(params));
-        double peripheralSpeed = Math.PI * wheelDiameter * params.getMaxSpeed() / 60.0;
+        double peripheralSpeed = Math.PI * wheelDiameter * maxSpeed / 60.0;
         double slidingDistance = peripheralSpeed * duration;
         double wearVolume = wearCoefficient * avgLoad * slidingDistance;
         double diameterReduction = wearVolume / (Math.PI * wheelDiameter * wheelThickness * 1000.0);
-        return Math.min(diameterReduction, params.getWheelDiameter() * 0.2);
+        return Math.min(diameterReduction, initialDiameter * 0.2);
     }
 
     public double calculateWearInducedVibration(SpindleParameters params, double wear) {
-        double wheelDiameter = params.getWheelDiameter() / 1000.0;
+        return calculateWearInducedVibration(params.getWheelDiameter(), params.getMaxSpeed(), wear);
+    }
+
+    public double calculateWearInducedVibration(SpindleConfiguration params, double wear) {
+        return calculateWearInducedVibration(params.wheelDiameter(), params.maxSpeed(), wear);
+    }
+
+    private double calculateWearInducedVibration(double initialDiameter, int maxSpeed, double wear) {
+        double wheelDiameter = initialDiameter / 1000.0;
         double wheelThickness = 0.02;
         double density = 2500.0;
         double wearVolume = wear * Math.PI * wheelDiameter * wheelThickness * 1000.0;
         double imbalanceMass = density * wearVolume * 1e-9;
         double wheelMass = density * Math.PI * Math.pow(wheelDiameter / 2, 2) * wheelThickness;
         double eccentricity = (imbalanceMass * (wheelDiameter / 2)) / wheelMass;
-        double omega = 2 * Math.PI * params.getMaxSpeed() / 60.0;
+        double omega = 2 * Math.PI * maxSpeed / 60.0;
         double imbalanceForce = imbalanceMass * Math.pow(omega, 2) * eccentricity;
         double systemStiffness = 1e8;
         double vibrationAmplitude = imbalanceForce / systemStiffness * 1000.0;
         return Math.min(vibrationAmplitude, 2.0);
     }
 
-    private void generateHistoricalData() {
+    // A backend that already learned something (e.g. from a persisted history log) is not given synthetic data
+    private static void ensureHistoricalData() {
+        if (bootstrapped) {
+            return;
+        }
+        synchronized (BOOTSTRAP_LOCK) {
+            if (!bootstrapped) {
+                if (maintenancePredictor.getObservationCount() == 0) {
+                    generateHistoricalData();
+                }
+                bootstrapped = true;
+            }
+        }
+    }
+
+    // Caller must hold the bootstrap lock
+    private static void generateHistoricalData() {
+        RandomGenerator random = newGenerator(HISTORY_SEED);
         for (int i = 0; i < 100; i++) {
             double vibration = 0.2 + random.nextDouble() * 2.0;
             double temperature = 20.0 + random.nextDouble() * 30.0;
@@ -573,50 +925,36 @@ public class SpindleSimulation {
             double spindleLife = random.nextDouble();
             double wheelWear = random.nextDouble() * 40.0;
             int label = (vibration > 1.0 || bearingLife < 5000 || spindleLife < 0.5 || wheelWear > 40.0 * 0.5) ? 1 : 0;
-            historicalData.add(new DataPoint(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label));
+            maintenancePredictor.learn(vibration, temperature, load, bearingLife, spindleLife, wheelWear, label);
         }
     }
 
-    private double calculateEuclideanDistance(DataPoint p1, DataPoint p2) {
-        double vibDiff = (p1.vibration - p2.vibration) / 2.0;
-        double tempDiff = (p1.temperature - p2.temperature) / 30.0;
-        double loadDiff = (p1.load - p2.load) / 1500.0;
-        double bearingLifeDiff = (p1.bearingLife - p2.bearingLife) / 50000.0;
-        double spindleLifeDiff = (p1.spindleLife - p2.spindleLife);
-        double wheelWearDiff = (p1.wheelWear - p2.wheelWear) / 40.0;
-
-        return Math.sqrt(
-            vibDiff * vibDiff +
-            tempDiff * tempDiff +
-            loadDiff * loadDiff +
-            bearingLifeDiff * bearingLifeDiff +
-            spindleLifeDiff * spindleLifeDiff +
-            wheelWearDiff * wheelWearDiff
-        );
+    // Asks the configured MaintenancePredictor (the k-NN vote over the history unless -Dspindle.predictor
+    // names another backend)
+    public int predictMaintenance(double vibration, double temperature, double load,
+                                  double bearingLife, double spindleLife, double wheelWear) {
+        ensureHistoricalData();
+        return maintenancePredictor.predict(vibration, temperature, load, bearingLife, spindleLife, wheelWear);
     }
 
-    public int predictMaintenance(double vibration, double temperature, double load, 
-                                 double bearingLife, double spindleLife, double wheelWear) {
-        if (historicalData.isEmpty()) {
-            generateHistoricalData();
-        }
-
-        DataPoint query = new DataPoint(vibration, temperature, load, bearingLife, spindleLife, wheelWear, 0);
-        List<double[]> distances = new ArrayList<>();
-        for (DataPoint data : historicalData) {
-            double distance = calculateEuclideanDistance(query, data);
-            distances.add(new double[]{distance, data.label});
-        }
+    // Hit rate and latency of the maintenance prediction cache, over every simulation in this JVM
+    public PredictionCacheStatistics getPredictionCacheStatistics() {
+        return maintenancePredictor.getCacheStatistics();
+    }
 
-        distances.sort((a, b) -> Double.compare(a[0], b[0]));
-        int k = 3;
-        int yesCount = 0;
-        for (int i = 0; i < k && i < distances.size(); i++) {
-            if ((int) distances.get(i)[1] == 1) {
-                yesCount++;
+    // Predicts maintenance for many operating points at once. Each row holds vibration, temperature, load,
+    // bearing life, spindle life and wheel wear, as passed to predictMaintenance. The k-NN backend searches the
+    // queries in parallel on the pool; only block-scanned histories (-Dspindle.knn.index=linear and the off-heap
+    // and mapped stores) also share each block between tiles of queries. On the default KD-tree a batch costs
+    // about what the same single calls cost, divided by the pool's parallelism.
+    public PredictionBatch predictMaintenanceBatch(double[][] queries) {
+        for (double[] query : queries) {
+            if (query.length != MaintenanceHistory.FEATURES) {
+                throw new IllegalArgumentException("Each query needs " + MaintenanceHistory.FEATURES + " features");
             }
         }
-
-        return yesCount > k / 2 ? 1 : 0;
+        ensureHistoricalData();
+        ForkJoinPool pool = executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+        return maintenancePredictor.predictBatch(queries, pool);
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package code.grindlespindledesign.simulation;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.List;
 
 public class SpindleSimulatorPanel extends JPanel {
     private JComboBox<String> spindleTypeCombo, bearingTypeCombo, coolingTypeCombo, lubricationTypeCombo, toolInterfaceCombo;
@@ -232,22 +231,18 @@ public class SpindleSimulatorPanel extends JPanel {
             params.setToolInterface((String) toolInterfaceCombo.getSelectedItem());
             params.setAlignmentTolerance(Double.parseDouble(alignmentToleranceField.getText()));
             
-            String results = simulation.simulate(params);
-            resultsArea.setText(results);
+            SimulationResult results = simulation.simulate(params);
+            resultsArea.setText(results.getReport());
+            if (!results.isValid()) {
+                return;
+            }
             
             // Update visualization with balanced scenario metrics (default)
-            List<Double> loadProfile = simulation.generateDynamicLoadProfile(params, 10.0, 1.0);
-            double vibration = simulation.estimateVibration(params);
-            double temperature = simulation.estimateTemperatureRise(params);
-            double power = simulation.calculateRequiredPower(params.getWheelDiameter(), params.getMaxSpeed());
-            double load = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(simulation.estimateLoad(params));
-            double bearingLife = simulation.calculateBearingL10Life(params, loadProfile);
-            double spindleLife = simulation.calculateSpindleFatigueLife(params, loadProfile);
-            double wheelWear = simulation.calculateWheelWear(params, loadProfile, 10.0);
-            double wearVibration = simulation.calculateWearInducedVibration(params, wheelWear);
-            int maintenanceNeeded = simulation.predictMaintenance(vibration + wearVibration, temperature + 20.0, load, 
-                                                                 bearingLife, spindleLife, wheelWear);
-            visualizationPanel.updateVisualization(vibration, temperature, power, load, bearingLife, spindleLife, wheelWear, maintenanceNeeded);
+            ScenarioResult balanced = results.getScenario("Balanced");
+            visualizationPanel.updateVisualization(balanced.getVibration(), balanced.getTemperatureRise(),
+                                                  balanced.getRequiredPower(), balanced.getAverageLoad(),
+                                                  balanced.getBearingLifeHours(), balanced.getSpindleLife(),
+                                                  balanced.getWheelWear(), balanced.getMaintenanceNeeded());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, 
                 "An error occurred during simulation: " + ex.getMessage(), 
@@ -278,22 +273,17 @@ public class SpindleSimulatorPanel extends JPanel {
             
             double duration = Double.parseDouble(timeDurationField.getText());
             
-            String results = simulation.simulateTimeBased(params, duration);
-            resultsArea.setText(results);
+            SimulationResult results = simulation.simulateTimeBased(params, duration);
+            resultsArea.setText(results.getReport());
+            if (!results.isValid()) {
+                return;
+            }
             
-            List<Double> loadProfile = simulation.generateDynamicLoadProfile(params, duration, 1.0);
-            double finalLoad = loadProfile.get(loadProfile.size() - 1);
-            double finalVibration = simulation.estimateVibration(params, finalLoad);
-            double finalTemperature = 20.0 + simulation.estimateTemperatureRise(params, finalLoad) * duration / 10.0;
-            double finalPower = simulation.calculateRequiredPower(params.getWheelDiameter(), params.getMaxSpeed());
-            double bearingLife = simulation.calculateBearingL10Life(params, loadProfile);
-            double spindleLife = simulation.calculateSpindleFatigueLife(params, loadProfile);
-            double wheelWear = simulation.calculateWheelWear(params, loadProfile, duration);
-            double wearVibration = simulation.calculateWearInducedVibration(params, wheelWear);
-            int maintenanceNeeded = simulation.predictMaintenance(finalVibration + wearVibration, finalTemperature, finalLoad, 
-                                                                 bearingLife, spindleLife, wheelWear);
-            visualizationPanel.updateVisualization(finalVibration, finalTemperature, finalPower, finalLoad, 
-                                                  bearingLife, spindleLife, wheelWear, maintenanceNeeded);
+            TimeBasedResult timeBased = results.getTimeBasedResult();
+            visualizationPanel.updateVisualization(timeBased.getFinalVibration(), timeBased.getFinalTemperature(),
+                                                  timeBased.getRequiredPower(), timeBased.getFinalLoad(),
+                                                  timeBased.getBearingLifeHours(), timeBased.getSpindleLife(),
+                                                  timeBased.getWheelWear(), timeBased.getMaintenanceNeeded());
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, 
                 "An error occurred during time-based simulation: " + ex.getMessage(), 
@@ -322,13 +312,14 @@ public class SpindleSimulatorPanel extends JPanel {
             params.setToolInterface((String) toolInterfaceCombo.getSelectedItem());
             params.setAlignmentTolerance(Double.parseDouble(alignmentToleranceField.getText()));
             
-            List<Double> loadProfile = simulation.generateDynamicLoadProfile(params, 1.0, 1.0);
+            LoadProfile loadProfile = simulation.generateLoadProfile(params, 1.0, 1.0);
             double vibration = simulation.estimateVibration(params);
             double temperature = simulation.estimateTemperatureRise(params) + 20.0;
-            double avgLoad = loadProfile.stream().mapToDouble(Double::doubleValue).average().orElse(simulation.estimateLoad(params));
-            double bearingLife = simulation.calculateBearingL10Life(params, loadProfile);
-            double spindleLife = simulation.calculateSpindleFatigueLife(params, loadProfile);
-            double wheelWear = simulation.calculateWheelWear(params, loadProfile, 1.0);
+            ProfileMetrics metrics = simulation.analyzeLoadProfile(params, loadProfile, 1.0);
+            double avgLoad = metrics.average(simulation.estimateLoad(params));
+            double bearingLife = simulation.calculateBearingL10Life(params, metrics);
+            double spindleLife = simulation.calculateSpindleFatigueLife(params, metrics);
+            double wheelWear = simulation.calculateWheelWear(params, metrics, 1.0);
             double wearVibration = simulation.calculateWearInducedVibration(params, wheelWear);
             double totalVibration = vibration + wearVibration;
             
@@ -0,0 +1,27 @@
+package code.grindlespindledesign.simulation;
+
+public enum SpindleType {
+    BELT_DRIVEN("Belt-Driven"),
+    DIRECT_DRIVE("Direct-Drive"),
+    MOTORIZED("Motorized");
+
+    private final String label;
+
+    SpindleType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    public static SpindleType fromLabel(String label) {
+        for (SpindleType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown spindle type: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
\ No newline at end of file
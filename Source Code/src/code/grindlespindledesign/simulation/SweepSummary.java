@@ -0,0 +1,19 @@
+package code.grindlespindledesign.simulation;
+
+// Outcome of a design sweep: how many designs were evaluated and how fast
+public record SweepSummary(long evaluated, long rejected, long elapsedNanos, int cores) {
+
+    public double designsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : evaluated / (elapsedNanos / 1e9);
+    }
+
+    public double designsPerSecondPerCore() {
+        return designsPerSecond() / cores;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d designs evaluated (%d rejected) in %.3f s: %.0f designs/s, %.0f designs/s/core on %d cores",
+            evaluated, rejected, elapsedNanos / 1e9, designsPerSecond(), designsPerSecondPerCore(), cores);
+    }
+}
\ No newline at end of file
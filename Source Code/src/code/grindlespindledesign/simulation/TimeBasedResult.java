@@ -0,0 +1,80 @@
+package code.grindlespindledesign.simulation;
+
+// Numbers produced by a materialized time-based run: the per-step series plus the fatigue, wear and
+// maintenance results derived from them
+public final class TimeBasedResult {
+    private final SpindleConfiguration params;
+    private final double duration;
+    private final LoadProfile loadProfile;
+    private final LoadProfile vibrations;
+    private final LoadProfile temperatures;
+    private final ProfileMetrics metrics;
+    private final double requiredPower;
+    private final double bearingLifeHours;
+    private final double spindleLife;
+    private final double wheelWear;
+    private final double wearVibration;
+    private final double averageLoad;
+    private final int maintenanceNeeded;
+
+    TimeBasedResult(SpindleConfiguration params, double duration, LoadProfile loadProfile, LoadProfile vibrations,
+                    LoadProfile temperatures, ProfileMetrics metrics, double requiredPower, double bearingLifeHours,
+                    double spindleLife, double wheelWear, double wearVibration, double averageLoad,
+                    int maintenanceNeeded) {
+        this.params = params;
+        this.duration = duration;
+        this.loadProfile = loadProfile;
+        this.vibrations = vibrations;
+        this.temperatures = temperatures;
+        this.metrics = metrics;
+        this.requiredPower = requiredPower;
+        this.bearingLifeHours = bearingLifeHours;
+        this.spindleLife = spindleLife;
+        this.wheelWear = wheelWear;
+        this.wearVibration = wearVibration;
+        this.averageLoad = averageLoad;
+        this.maintenanceNeeded = maintenanceNeeded;
+    }
+
+    public SpindleConfiguration getParams() { return params; }
+
+    public double getDuration() { return duration; }
+
+    public LoadProfile getLoadProfile() { return loadProfile; }
+
+    // Vibration in mm/s at every time step
+    public LoadProfile getVibrations() { return vibrations; }
+
+    // Operating temperature in °C at every time step
+    public LoadProfile getTemperatures() { return temperatures; }
+
+    public ProfileMetrics getMetrics() { return metrics; }
+
+    public double getRequiredPower() { return requiredPower; }
+
+    public double getAverageVibration() { return vibrations.average(0.0); }
+
+    public double getMaxVibration() { return vibrations.max(0.0); }
+
+    public double getAverageTemperature() { return temperatures.average(0.0); }
+
+    public double getMaxTemperature() { return temperatures.max(0.0); }
+
+    public double getFinalLoad() { return loadProfile.isEmpty() ? 0.0 : loadProfile.last(); }
+
+    public double getFinalVibration() { return vibrations.isEmpty() ? 0.0 : vibrations.last(); }
+
+    public double getFinalTemperature() { return temperatures.isEmpty() ? 20.0 : temperatures.last(); }
+
+    public double getBearingLifeHours() { return bearingLifeHours; }
+
+    public double getSpindleLife() { return spindleLife; }
+
+    public double getWheelWear() { return wheelWear; }
+
+    public double getWearVibration() { return wearVibration; }
+
+    public double getAverageLoad() { return averageLoad; }
+
+    public int getMaintenanceNeeded() { return maintenanceNeeded; }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package code.grindlespindledesign.simulation;
+
+// Outcome of a streaming time-based simulation; the statistics cover every time step
+public record TimeBasedSummary(double duration, long steps, RunningStatistics load, RunningStatistics vibration,
+                               RunningStatistics temperature, ProfileMetrics loadMetrics, double bearingLifeHours,
+                               double spindleLife, double wheelWear, double wearVibration, int maintenanceNeeded) {
+}
\ No newline at end of file
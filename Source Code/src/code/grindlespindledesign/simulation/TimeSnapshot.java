@@ -0,0 +1,7 @@
+package code.grindlespindledesign.simulation;
+
+// Periodic state of a streaming time-based simulation
+public record TimeSnapshot(double time, double load, double vibration, double temperature,
+                           double averageVibration, double maxVibration, double averageTemperature,
+                           double maxTemperature) {
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package code.grindlespindledesign.simulation;
+
+public enum ToolInterface {
+    PRECISION_COLLET("Precision Collet", 1.0),
+    HYDRAULIC_CHUCK("Hydraulic Chuck", 1.0),
+    HSK("HSK", 0.9);
+
+    private final String label;
+    private final double vibrationFactor;
+
+    ToolInterface(String label, double vibrationFactor) {
+        this.label = label;
+        this.vibrationFactor = vibrationFactor;
+    }
+
+    public String getLabel() { return label; }
+
+    public double getVibrationFactor() { return vibrationFactor; }
+
+    public static ToolInterface fromLabel(String label) {
+        for (ToolInterface type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tool interface: " + label);
+    }
+
+    @Override
+    public String toString() { return label; }
+}
\ No newline at end of file